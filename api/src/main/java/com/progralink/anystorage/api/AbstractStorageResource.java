@@ -3,16 +3,28 @@ package com.progralink.anystorage.api;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
 import com.progralink.anystorage.api.exceptions.NotEmptyDirectoryException;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.exceptions.NotModifiedException;
+import com.progralink.anystorage.api.io.RangedReadChannel;
+import com.progralink.anystorage.api.options.ByteRange;
+import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
+import com.progralink.anystorage.api.trace.StorageSpan;
+import com.progralink.anystorage.api.trace.StorageTracing;
 import com.progralink.jinout.streams.IOStreams;
+import com.progralink.jinout.streams.input.LengthAwareInputStream;
 
 import java.io.*;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.stream.Collectors;
@@ -21,6 +33,7 @@ import java.util.stream.Stream;
 public abstract class AbstractStorageResource implements StorageResource {
     protected StorageSession session;
     protected StorageResource parent;
+    private ResourcePath resourcePath;
 
     protected AbstractStorageResource(StorageSession session) {
         this.session = session;
@@ -41,6 +54,22 @@ public abstract class AbstractStorageResource implements StorageResource {
         return parent;
     }
 
+    @Override
+    public ResourcePath getResourcePath() throws IOException {
+        //computed once per handle, children reuse the cached path of their parent
+        ResourcePath result = resourcePath;
+        if (result == null) {
+            result = StorageResource.super.getResourcePath();
+            resourcePath = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String getLocalPath() throws IOException {
+        return getResourcePath().toString();
+    }
+
     @Override
     public Instant getTimeCreated() throws IOException {
         return null;
@@ -63,17 +92,100 @@ public abstract class AbstractStorageResource implements StorageResource {
 
     @Override
     public InputStream openRead(ReadOption<?>... options) throws IOException {
+        StorageSpan span = StorageTracing.begin("openRead", this);
         try {
-            return openInputStream(Options.merge(session.getOptions(), options));
+            Options allOptions = Options.merge(session.getOptions(), options);
+            checkModified(allOptions);
+            return StorageTracing.trace(span, openRangedInputStream(allOptions));
         } catch (Exception e) {
-            throw translateException(e);
+            throw translateException(e, span);
+        }
+    }
+
+    /**
+     * Throws {@link NotModifiedException} when the validator of {@link ReadOption#ofIfNoneMatch(String)} is still the current one.
+     * Storages checking it within the read request itself override this with a no-op.
+     */
+    protected void checkModified(Options options) throws IOException {
+        String validator = options.get(ReadOption.Name.IF_NONE_MATCH);
+        if (validator != null && validator.equals(getValidator())) {
+            throw new NotModifiedException();
+        }
+    }
+
+    protected InputStream openRangedInputStream(Options options) throws Exception {
+        ByteRange range = options.get(ReadOption.Name.RANGE);
+        if (range != null) {
+            if (range.isEmpty()) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            if (!session.isSupported(ReadOption.ofRange(range))) {
+                return range.slice(openInputStream(options.without(ReadOption.Name.RANGE)));
+            }
         }
+        return openInputStream(options);
     }
 
     protected abstract InputStream openInputStream(Options options) throws Exception;
 
+    @Override
+    public long readTo(WritableByteChannel target, ReadOption<?>... options) throws IOException {
+        StorageSpan span = StorageTracing.begin("readTo", this);
+        long size;
+        try {
+            Options allOptions = Options.merge(session.getOptions(), options);
+            checkModified(allOptions);
+            size = transferTo(target, allOptions);
+        } catch (Exception e) {
+            throw translateException(e, span);
+        }
+        span.addBytes(size);
+        span.end(null);
+        return size;
+    }
+
+    /**
+     * Copies the (ranged) content to the channel, storages of local files override this with {@link java.nio.channels.FileChannel#transferTo}.
+     */
+    protected long transferTo(WritableByteChannel target, Options options) throws Exception {
+        try (InputStream inputStream = openRangedInputStream(options)) {
+            return IOStreams.transfer(inputStream, Channels.newOutputStream(target));
+        }
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(boolean writable, Option<?>... options) throws IOException {
+        try {
+            Options allOptions = Options.merge(session.getOptions(), options);
+            if (writable && WriteOption.CREATE_NEW.isEnabled(allOptions) && exists()) {
+                throw new AlreadyExistsException();
+            }
+            return openSeekableChannel(writable, allOptions);
+        } catch (Exception e) {
+            throw translateException(e);
+        }
+    }
+
+    protected SeekableByteChannel openSeekableChannel(boolean writable, Options options) throws Exception {
+        return openRangedReadChannel(writable, options, RangedReadChannel.DEFAULT_WINDOW_SIZE);
+    }
+
+    protected SeekableByteChannel openRangedReadChannel(boolean writable, Options options, int windowSize) throws Exception {
+        if (writable) {
+            throw new UnsupportedOperationException("Writable channel not supported");
+        }
+        return new RangedReadChannel(range -> {
+            try {
+                return openRangedInputStream(options.with(ReadOption.Name.RANGE, range));
+            } catch (Exception e) {
+                throw translateException(e);
+            }
+        }, getSize(), windowSize);
+    }
+
     @Override
     public OutputStream openWrite(WriteOption<?>... options) throws IOException {
+        StorageSpan span = StorageTracing.begin("openWrite", this);
         try {
             Options allOptions = Options.merge(session.getOptions(), options);
             if (WriteOption.ATOMIC.isEnabled(allOptions)) {
@@ -82,9 +194,9 @@ public abstract class AbstractStorageResource implements StorageResource {
             if (WriteOption.CREATE_NEW.isEnabled(allOptions) && exists()) {
                 throw new AlreadyExistsException();
             }
-            return openOutputStream(allOptions);
+            return StorageTracing.trace(span, openOutputStream(allOptions));
         } catch (Exception e) {
-            throw translateException(e);
+            throw translateException(e, span);
         }
     }
 
@@ -92,14 +204,39 @@ public abstract class AbstractStorageResource implements StorageResource {
 
     @Override
     public long write(InputStream source, WriteOption<?>... options) throws IOException {
+        StorageSpan span = StorageTracing.begin("write", this);
+        long size;
         try {
             Options allOptions = Options.merge(session.getOptions(), options);
-            if (WriteOption.ATOMIC.isEnabled(allOptions) && WriteOption.APPEND.isEnabled(allOptions)) {
-                throw new UnsupportedOperationException("Cannot mix CREATE_NEW with APPEND");
-            }
-            return writeStream(source, Options.merge(session.getOptions(), options));
+            checkWriteOptions(allOptions);
+            size = writeStream(source, allOptions);
         } catch (Exception e) {
-            throw translateException(e);
+            throw translateException(e, span);
+        }
+        span.addBytes(size);
+        span.end(null);
+        return size;
+    }
+
+    @Override
+    public long write(Path sourceFilePath, WriteOption<?>... options) throws IOException {
+        StorageSpan span = StorageTracing.begin("write", this);
+        long size;
+        try {
+            Options allOptions = Options.merge(session.getOptions(), options);
+            checkWriteOptions(allOptions);
+            size = writeFile(sourceFilePath, allOptions);
+        } catch (Exception e) {
+            throw translateException(e, span);
+        }
+        span.addBytes(size);
+        span.end(null);
+        return size;
+    }
+
+    private static void checkWriteOptions(Options options) {
+        if (WriteOption.ATOMIC.isEnabled(options) && WriteOption.APPEND.isEnabled(options)) {
+            throw new UnsupportedOperationException("Cannot mix CREATE_NEW with APPEND");
         }
     }
 
@@ -109,6 +246,94 @@ public abstract class AbstractStorageResource implements StorageResource {
         }
     }
 
+    /**
+     * Writes the content of a local file, storages of local files override this with {@link java.nio.channels.FileChannel#transferTo}.
+     */
+    protected long writeFile(Path sourceFilePath, Options options) throws Exception {
+        try (InputStream inputStream = Files.newInputStream(sourceFilePath)) {
+            long size = Files.size(sourceFilePath);
+            writeStream(new LengthAwareInputStream(inputStream, size), options);
+            return size;
+        }
+    }
+
+    @Override
+    public void copyTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        if (isSameResource(target)) {
+            return;
+        }
+        if (target.getSession() == session) {
+            StorageSpan span = StorageTracing.begin("copy", this);
+            boolean done;
+            try {
+                done = copyWithinSession(target, Options.merge(session.getOptions(), options));
+            } catch (Exception e) {
+                throw translateException(e, span);
+            }
+            span.end(null);
+            if (done) {
+                return;
+            }
+        }
+        //different storages (or no native copy): bytes go through this JVM
+        StorageResource.super.copyTo(target, options);
+    }
+
+    @Override
+    public void moveTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        if (isSameResource(target)) {
+            return;
+        }
+        if (target.getSession() == session) {
+            StorageSpan span = StorageTracing.begin("move", this);
+            boolean done;
+            try {
+                done = moveWithinSession(target, Options.merge(session.getOptions(), options));
+            } catch (Exception e) {
+                throw translateException(e, span);
+            }
+            span.end(null);
+            if (done) {
+                return;
+            }
+        }
+        StorageResource.super.moveTo(target, options);
+    }
+
+    //copying or moving onto itself would first clear the target, i.e. the source
+    private boolean isSameResource(StorageResource target) throws IOException {
+        return target.getSession() == session && target.getResourcePath().equals(getResourcePath());
+    }
+
+    /**
+     * Native (server-side) copy to a resource of the same session, returns false to fall back to streaming.
+     */
+    protected boolean copyWithinSession(StorageResource target, Options options) throws Exception {
+        return false;
+    }
+
+    /**
+     * Native move (rename) to a resource of the same session, returns false to fall back to copy and delete.
+     */
+    protected boolean moveWithinSession(StorageResource target, Options options) throws Exception {
+        if (copyWithinSession(target, options)) {
+            delete();
+            return true;
+        }
+        return false;
+    }
+
+    private IOException translateException(Exception e, StorageSpan span) {
+        try {
+            IOException translated = translateException(e);
+            span.end(translated);
+            return translated;
+        } catch (RuntimeException runtimeException) {
+            span.end(runtimeException);
+            throw runtimeException;
+        }
+    }
+
     protected IOException translateException(Exception e) {
         if (e == null) {
             return new IOException("Unspecified general exception");
@@ -1,5 +1,6 @@
 package com.progralink.anystorage.api;
 
+import com.progralink.anystorage.api.options.FlatOptions;
 import com.progralink.anystorage.api.options.Options;
 
 public abstract class AbstractStorageSession implements StorageSession {
@@ -9,7 +10,8 @@ public abstract class AbstractStorageSession implements StorageSession {
 
     protected AbstractStorageSession(String name, Options options) {
         this.name = name;
-        this.options = options;
+        //resolved once, so per-call lookups do not walk the chain down to system properties and environment
+        this.options = options != null ? FlatOptions.of(options) : null;
     }
 
     @Override
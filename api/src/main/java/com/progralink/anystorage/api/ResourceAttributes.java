@@ -0,0 +1,196 @@
+package com.progralink.anystorage.api;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+public final class ResourceAttributes {
+    public static final ResourceAttributes NOT_FOUND = builder().build();
+
+
+    private final boolean exists;
+    private final boolean file;
+    private final boolean directory;
+    private final long size;
+    private final Instant timeCreated;
+    private final Instant timeLastModified;
+    private final Instant timeLastAccess;
+    private final String versionId;
+    private final String eTag;
+    private final String checksumAlgorithm;
+    private final byte[] checksum;
+
+    private ResourceAttributes(Builder builder) {
+        this.exists = builder.exists;
+        this.file = builder.file;
+        this.directory = builder.directory;
+        this.size = builder.size;
+        this.timeCreated = builder.timeCreated;
+        this.timeLastModified = builder.timeLastModified;
+        this.timeLastAccess = builder.timeLastAccess;
+        this.versionId = builder.versionId;
+        this.eTag = builder.eTag;
+        this.checksumAlgorithm = builder.checksumAlgorithm;
+        this.checksum = builder.checksum;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.exists = exists;
+        builder.file = file;
+        builder.directory = directory;
+        builder.size = size;
+        builder.timeCreated = timeCreated;
+        builder.timeLastModified = timeLastModified;
+        builder.timeLastAccess = timeLastAccess;
+        builder.versionId = versionId;
+        builder.eTag = eTag;
+        builder.checksumAlgorithm = checksumAlgorithm;
+        builder.checksum = checksum;
+        return builder;
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    public boolean isFile() {
+        return file;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    public boolean hasSize() {
+        return size >= 0;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Instant getTimeCreated() {
+        return timeCreated;
+    }
+
+    public Instant getTimeLastModified() {
+        return timeLastModified;
+    }
+
+    public Instant getTimeLastAccess() {
+        return timeLastAccess;
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public String getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    public byte[] getChecksum() {
+        return checksum != null ? checksum.clone() : null;
+    }
+
+    @Override
+    public String toString() {
+        if (!exists && !directory) {
+            return "NOT_FOUND";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(file ? (directory ? "FILE+DIRECTORY" : "FILE") : (directory ? "DIRECTORY" : "OTHER"));
+        if (hasSize()) {
+            sb.append(" size=").append(size);
+        }
+        if (timeLastModified != null) {
+            sb.append(" modified=").append(timeLastModified);
+        }
+        if (versionId != null) {
+            sb.append(" version=").append(versionId);
+        }
+        if (eTag != null) {
+            sb.append(" etag=").append(eTag);
+        }
+        return sb.toString();
+    }
+
+    public static final class Builder {
+        private boolean exists;
+        private boolean file;
+        private boolean directory;
+        private long size = -1;
+        private Instant timeCreated;
+        private Instant timeLastModified;
+        private Instant timeLastAccess;
+        private String versionId;
+        private String eTag;
+        private String checksumAlgorithm;
+        private byte[] checksum;
+
+        private Builder() { }
+
+        public Builder exists(boolean exists) {
+            this.exists = exists;
+            return this;
+        }
+
+        public Builder file(boolean file) {
+            this.file = file;
+            return this;
+        }
+
+        public Builder directory(boolean directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public Builder size(long size) {
+            this.size = size;
+            return this;
+        }
+
+        public Builder timeCreated(Instant timeCreated) {
+            this.timeCreated = timeCreated;
+            return this;
+        }
+
+        public Builder timeLastModified(Instant timeLastModified) {
+            this.timeLastModified = timeLastModified;
+            return this;
+        }
+
+        public Builder timeLastAccess(Instant timeLastAccess) {
+            this.timeLastAccess = timeLastAccess;
+            return this;
+        }
+
+        public Builder versionId(String versionId) {
+            this.versionId = versionId;
+            return this;
+        }
+
+        public Builder eTag(String eTag) {
+            this.eTag = eTag;
+            return this;
+        }
+
+        public Builder checksum(String algorithm, byte[] checksum) {
+            this.checksumAlgorithm = checksum != null ? algorithm : null;
+            this.checksum = checksum != null ? Arrays.copyOf(checksum, checksum.length) : null;
+            return this;
+        }
+
+        public ResourceAttributes build() {
+            return new ResourceAttributes(this);
+        }
+    }
+}
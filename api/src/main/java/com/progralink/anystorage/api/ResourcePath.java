@@ -0,0 +1,105 @@
+package com.progralink.anystorage.api;
+
+import java.util.Objects;
+
+/**
+ * Immutable local path of a resource, e.g. {@code "/dir/file.txt"} ({@code ""} for the root).
+ * The string form is built once and reused by child paths.
+ */
+public final class ResourcePath {
+    public static final ResourcePath ROOT = new ResourcePath(null, "");
+
+    private final ResourcePath parent;
+    private final String name;
+    private final int depth;
+    private String path;
+
+    private ResourcePath(ResourcePath parent, String name) {
+        this.parent = parent;
+        this.name = name;
+        this.depth = parent != null ? parent.depth + 1 : 0;
+        if (parent == null) {
+            this.path = "";
+        }
+    }
+
+    /**
+     * Parses a local path in a single pass, ignoring empty segments and resolving {@code ".."}.
+     */
+    public static ResourcePath parse(String path) {
+        ResourcePath result = ROOT;
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/' || path.charAt(i) == '\\') {
+                if (i > start) {
+                    if (i - start == 2 && path.charAt(start) == '.' && path.charAt(start + 1) == '.') {
+                        if (result.parent == null) {
+                            throw new IllegalArgumentException("Path goes above the root: " + path);
+                        }
+                        result = result.parent;
+                    } else {
+                        result = result.child(path.substring(start, i));
+                    }
+                }
+                start = i + 1;
+            }
+        }
+        return result;
+    }
+
+    public ResourcePath child(String name) {
+        return new ResourcePath(this, name);
+    }
+
+    public ResourcePath getParent() {
+        return parent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    public boolean startsWith(ResourcePath other) {
+        ResourcePath current = this;
+        while (current != null && current.depth > other.depth) {
+            current = current.parent;
+        }
+        return other.equals(current);
+    }
+
+    @Override
+    public String toString() {
+        String result = path;
+        if (result == null) {
+            result = parent.toString() + "/" + name;
+            path = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResourcePath)) {
+            return false;
+        }
+        ResourcePath that = (ResourcePath) o;
+        return depth == that.depth && Objects.equals(toString(), that.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+}
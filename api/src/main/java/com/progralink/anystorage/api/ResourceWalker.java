@@ -0,0 +1,189 @@
+package com.progralink.anystorage.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class ResourceWalker {
+    private ResourceWalker() {
+    }
+
+    /**
+     * Walks the tree level by level using {@link StorageResource#childrenWithAttributes()}.
+     * Only one listing per directory level is kept open at a time.
+     */
+    public static Stream<StorageResourceEntry> walk(StorageResource resource, int maxDepth) throws IOException {
+        if (maxDepth < 1) {
+            return Stream.empty();
+        }
+        TreeIterator iterator = new TreeIterator(maxDepth, false);
+        iterator.push("", 1, resource.childrenWithAttributes());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Like {@link #walk(StorageResource, int)}, but entries come in {@link String#compareTo} order of their relative paths
+     * regardless of the backend listing order, so that two trees can be merged in a single pass.
+     * Each directory listing is sorted in memory, an entry being both a file and a directory is returned as two entries.
+     */
+    public static Stream<StorageResourceEntry> walkSorted(StorageResource resource, int maxDepth) throws IOException {
+        if (maxDepth < 1) {
+            return Stream.empty();
+        }
+        TreeIterator iterator = new TreeIterator(maxDepth, true);
+        iterator.push("", 1, sortedChildren(resource));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    private static Stream<StorageResourceEntry> sortedChildren(StorageResource resource) throws IOException {
+        List<StorageResourceEntry> children = new ArrayList<>();
+        try (Stream<StorageResourceEntry> stream = resource.childrenWithAttributes()) {
+            stream.forEach(child -> {
+                ResourceAttributes attributes = child.getAttributes();
+                if (attributes.isFile() && attributes.isDirectory()) {
+                    children.add(new StorageResourceEntry(child.getName(), child.getResource(), attributes.toBuilder().directory(false).build()));
+                    children.add(new StorageResourceEntry(child.getName(), child.getResource(), ResourceAttributes.builder().directory(true).build()));
+                } else {
+                    children.add(child);
+                }
+            });
+        }
+        //content of directory "a" ("a/...") sorts after file "a.txt"
+        children.sort(Comparator.comparing(child -> child.getAttributes().isDirectory() ? child.getName() + "/" : child.getName()));
+        return children.stream();
+    }
+
+    /**
+     * Turns a flat, lexicographically sorted listing of file keys (relative to {@code base})
+     * into walk entries, synthesizing (virtual) directory entries on the way.
+     */
+    public static Stream<StorageResourceEntry> fromSortedKeys(StorageResource base, Stream<? extends Map.Entry<String, ResourceAttributes>> files, int maxDepth) {
+        if (maxDepth < 1) {
+            files.close();
+            return Stream.empty();
+        }
+        Deque<String> openDirectories = new ArrayDeque<>();
+        return files.sequential().flatMap(file -> {
+            String relativePath = file.getKey();
+            while (!openDirectories.isEmpty() && !relativePath.startsWith(openDirectories.peek() + "/")) {
+                openDirectories.pop();
+            }
+
+            List<StorageResourceEntry> entries = new ArrayList<>(2);
+            int start = openDirectories.isEmpty() ? 0 : openDirectories.peek().length() + 1;
+            int i;
+            while ((i = relativePath.indexOf('/', start)) != -1) {
+                String directoryPath = relativePath.substring(0, i);
+                openDirectories.push(directoryPath);
+                if (openDirectories.size() <= maxDepth && i > start) {
+                    entries.add(entry(base, directoryPath, ResourceAttributes.builder().directory(true).build()));
+                }
+                start = i + 1;
+            }
+
+            //keys ending with "/" are directory markers
+            if (start < relativePath.length() && openDirectories.size() < maxDepth) {
+                entries.add(entry(base, relativePath, file.getValue()));
+            }
+            return entries.stream();
+        });
+    }
+
+    /**
+     * Drops directory entries of sorted children listings when a file of the same name
+     * was already listed (possible in directoryless storages).
+     */
+    public static Stream<StorageResourceEntry> distinctNames(Stream<StorageResourceEntry> sortedEntries) {
+        //names listed between file "a" and directory "a" all start with "a"
+        Deque<String> fileNames = new ArrayDeque<>();
+        return sortedEntries.sequential().filter(entry -> {
+            String name = entry.getName();
+            while (!fileNames.isEmpty() && !name.startsWith(fileNames.peek())) {
+                fileNames.pop();
+            }
+            if (entry.getAttributes().isFile()) {
+                fileNames.push(name);
+                return true;
+            }
+            return !name.equals(fileNames.peek());
+        });
+    }
+
+    private static StorageResourceEntry entry(StorageResource base, String relativePath, ResourceAttributes attributes) {
+        try {
+            return new StorageResourceEntry(relativePath, base.resolve(relativePath), attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    private static class TreeIterator implements Iterator<StorageResourceEntry> {
+        private final int maxDepth;
+        private final boolean sorted;
+        private final Deque<Level> levels = new ArrayDeque<>();
+
+        TreeIterator(int maxDepth, boolean sorted) {
+            this.maxDepth = maxDepth;
+            this.sorted = sorted;
+        }
+
+        void push(String prefix, int depth, Stream<StorageResourceEntry> children) {
+            levels.push(new Level(prefix, depth, children));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!levels.isEmpty()) {
+                if (levels.peek().iterator.hasNext()) {
+                    return true;
+                }
+                levels.pop().stream.close();
+            }
+            return false;
+        }
+
+        @Override
+        public StorageResourceEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Level level = levels.peek();
+            StorageResourceEntry child = level.iterator.next();
+            String relativePath = level.prefix + child.getName();
+            if (child.getAttributes().isDirectory() && level.depth < maxDepth) {
+                try {
+                    StorageResource directory = child.getResource();
+                    push(relativePath + "/", level.depth + 1, sorted ? sortedChildren(directory) : directory.childrenWithAttributes());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return new StorageResourceEntry(relativePath, child.getResource(), child.getAttributes());
+        }
+
+        void close() {
+            while (!levels.isEmpty()) {
+                levels.pop().stream.close();
+            }
+        }
+    }
+
+    private static class Level {
+        private final String prefix;
+        private final int depth;
+        private final Stream<StorageResourceEntry> stream;
+        private final Iterator<StorageResourceEntry> iterator;
+
+        Level(String prefix, int depth, Stream<StorageResourceEntry> stream) {
+            this.prefix = prefix;
+            this.depth = depth;
+            this.stream = stream;
+            this.iterator = stream.iterator();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.progralink.anystorage.api;
+
+import com.progralink.anystorage.api.options.Options;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Properties;
+import java.util.ServiceConfigurationError;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Connector registered as a service but instantiated only on first use, so that unused connectors
+ * (and the SDKs they depend on) are never class-loaded.
+ * Metadata is read from {@code META-INF/anystorage/<connector class name>.properties}:
+ * {@code typeLabel} and {@code pattern}, a regular expression matching the beginning of every connection string
+ * the connector can handle. Connectors without metadata are instantiated when they are asked first.
+ */
+public class StorageConnectorProvider implements StorageConnector {
+    static final String METADATA_PREFIX = "META-INF/anystorage/";
+
+    private final String className;
+    private final ClassLoader classLoader;
+    private final String typeLabel;
+    private final Pattern pattern;
+    private volatile StorageConnector connector;
+
+    StorageConnectorProvider(String className, ClassLoader classLoader) throws IOException {
+        this.className = className;
+        this.classLoader = classLoader;
+        Properties metadata = new Properties();
+        URL url = classLoader.getResource(METADATA_PREFIX + className + ".properties");
+        if (url != null) {
+            try (InputStream inputStream = url.openStream()) {
+                metadata.load(new InputStreamReader(inputStream, UTF_8));
+            }
+        }
+        this.typeLabel = metadata.getProperty("typeLabel");
+        String pattern = metadata.getProperty("pattern");
+        this.pattern = pattern != null ? Pattern.compile(pattern) : null;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public boolean isInstantiated() {
+        return connector != null;
+    }
+
+    /**
+     * Instance of the connector, created on the first call.
+     */
+    public StorageConnector get() {
+        StorageConnector result = connector;
+        if (result == null) {
+            synchronized (this) {
+                result = connector;
+                if (result == null) {
+                    try {
+                        result = Class.forName(className, true, classLoader).asSubclass(StorageConnector.class).getDeclaredConstructor().newInstance();
+                    } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+                        throw new ServiceConfigurationError(StorageConnector.class.getName() + ": Provider " + className + " could not be instantiated", e);
+                    }
+                    connector = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getTypeLabel() {
+        return typeLabel != null ? typeLabel : get().getTypeLabel();
+    }
+
+    @Override
+    public boolean canHandle(String connectionString) {
+        if (pattern != null && !pattern.matcher(connectionString).lookingAt()) {
+            return false;
+        }
+        return get().canHandle(connectionString);
+    }
+
+    @Override
+    public StorageSession connect(String name, String connectionString, Options options) throws IOException {
+        return get().connect(name, connectionString, options);
+    }
+
+    @Override
+    public String toString() {
+        return className;
+    }
+}
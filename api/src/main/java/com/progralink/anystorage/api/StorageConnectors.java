@@ -1,19 +1,42 @@
 package com.progralink.anystorage.api;
 
 import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.pool.StorageSessionPool;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
 import java.util.*;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class StorageConnectors implements Iterable<StorageConnector> {
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+
     private Collection<StorageConnector> connectors;
 
     public StorageConnectors() {
+        this(Thread.currentThread().getContextClassLoader() != null ? Thread.currentThread().getContextClassLoader() : StorageConnectors.class.getClassLoader());
+    }
+
+    /**
+     * Connectors registered as services (the same files as read by {@link ServiceLoader}),
+     * instantiated lazily by {@link StorageConnectorProvider} on first use.
+     */
+    public StorageConnectors(ClassLoader classLoader) {
         connectors = new LinkedList<>();
-        ServiceLoader<StorageConnector> loader = ServiceLoader.load(StorageConnector.class);
-        Iterator<StorageConnector> iterator = loader.iterator();
-        while(iterator.hasNext()) {
-            connectors.add(iterator.next());
+        Set<String> classNames = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(SERVICES_PREFIX + StorageConnector.class.getName());
+            while (urls.hasMoreElements()) {
+                classNames.addAll(readClassNames(urls.nextElement()));
+            }
+            for (String className : classNames) {
+                connectors.add(new StorageConnectorProvider(className, classLoader));
+            }
+        } catch (IOException e) {
+            throw new ServiceConfigurationError(StorageConnector.class.getName() + ": Unable to read provider configuration", e);
         }
     }
 
@@ -34,6 +57,31 @@ public class StorageConnectors implements Iterable<StorageConnector> {
         return Optional.empty();
     }
 
+    private static List<String> readClassNames(URL url) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                if (comment != -1) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    classNames.add(line);
+                }
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * Builder of a registry sharing the sessions provided by these connectors instead of connecting on every call.
+     */
+    public StorageSessionPool.Builder pooled() {
+        return StorageSessionPool.builder(this);
+    }
+
     @Override
     public Iterator<StorageConnector> iterator() {
         return connectors.iterator();
@@ -1,19 +1,34 @@
 package com.progralink.anystorage.api;
 
+import com.progralink.anystorage.api.async.AsyncStorageResource;
+import com.progralink.anystorage.api.io.RangedReadChannel;
 import com.progralink.anystorage.api.options.DeleteOption;
+import com.progralink.anystorage.api.options.Option;
+import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
 import com.progralink.jinout.streams.IOStreams;
 import com.progralink.jinout.streams.input.LengthAwareInputStream;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,12 +45,16 @@ public interface StorageResource extends Iterable<StorageResource> {
         return getSession().getRootResource();
     }
 
-    default String getLocalPath() throws IOException {
+    default ResourcePath getResourcePath() throws IOException {
         StorageResource parent = getParent();
         if (parent != null) {
-            return parent.getLocalPath() + "/" + getName();
+            return parent.getResourcePath().child(getName());
         }
-        return "";
+        return ResourcePath.ROOT;
+    }
+
+    default String getLocalPath() throws IOException {
+        return getResourcePath().toString();
     }
 
     default String getParentLocalPath() throws IOException {
@@ -63,6 +82,28 @@ public interface StorageResource extends Iterable<StorageResource> {
     Instant getTimeLastModified() throws IOException;
     Instant getTimeLastAccess() throws IOException;
 
+    default ResourceAttributes stat() throws IOException {
+        if (!exists()) {
+            if (isDirectory()) {
+                return ResourceAttributes.builder().directory(true).build();
+            }
+            return ResourceAttributes.NOT_FOUND;
+        }
+
+        boolean file = isFile();
+        ResourceAttributes.Builder builder = ResourceAttributes.builder()
+                .exists(true)
+                .file(file)
+                .directory(!file && isDirectory())
+                .timeCreated(getTimeCreated())
+                .timeLastModified(getTimeLastModified())
+                .timeLastAccess(getTimeLastAccess());
+        if (file) {
+            builder.size(getSize());
+        }
+        return builder.build();
+    }
+
     default byte[] readFully(ReadOption<?>... options) throws IOException {
         try (InputStream inputStream = openRead(options)) {
             return IOStreams.readFully(inputStream);
@@ -70,21 +111,99 @@ public interface StorageResource extends Iterable<StorageResource> {
     }
 
     default long readTo(File targetFile, ReadOption<?>... options) throws IOException {
-        return readTo(targetFile.toPath());
+        return readTo(targetFile.toPath(), options);
     }
 
     default long readTo(Path targetFilePath, ReadOption<?>... options) throws IOException {
-        try (OutputStream outputStream = Files.newOutputStream(targetFilePath)) {
-            try (InputStream inputStream = openRead(options)) {
-                return IOStreams.transfer(inputStream, outputStream);
-            }
+        //storages backed by local files transfer to the channel without copying through heap buffers
+        try (FileChannel channel = FileChannel.open(targetFilePath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return readTo(channel, options);
+        }
+    }
+
+    /**
+     * Writes the content to the channel (a file, a socket...), which is left open.
+     */
+    default long readTo(WritableByteChannel target, ReadOption<?>... options) throws IOException {
+        try (InputStream inputStream = openRead(options)) {
+            return IOStreams.transfer(inputStream, Channels.newOutputStream(target));
         }
     }
 
     InputStream openRead(ReadOption<?>... options) throws IOException;
 
+    /**
+     * Opaque validator of the current content (ETag, version id or size and last modified time),
+     * to be passed to {@link ReadOption#ofIfNoneMatch(String)} by later reads.
+     * Null when the resource is not a file or the storage cannot tell content changes.
+     */
+    default String getValidator() throws IOException {
+        ResourceAttributes attributes = stat();
+        if (!attributes.isFile()) {
+            return null;
+        }
+        if (attributes.getETag() != null) {
+            return attributes.getETag();
+        }
+        if (attributes.getVersionId() != null) {
+            return "version:" + attributes.getVersionId();
+        }
+        if (attributes.hasSize() && attributes.getTimeLastModified() != null) {
+            return attributes.getSize() + "@" + attributes.getTimeLastModified();
+        }
+        return null;
+    }
+
+    /**
+     * Content digest ({@link MessageDigest} algorithm name, e.g. {@code "SHA-256"}) stored or computed by the storage itself.
+     * Empty when not available without reading the whole content, unless {@link ReadOption#COMPUTE_CHECKSUM} is given.
+     */
+    default Optional<byte[]> getChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        if (ReadOption.COMPUTE_CHECKSUM.isEnabled(Options.merge(getSession().getOptions(), options))) {
+            return Optional.of(computeChecksum(algorithm, options));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the whole content to digest it.
+     */
+    default byte[] computeChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unsupported checksum algorithm: " + algorithm, e);
+        }
+        try (InputStream inputStream = new DigestInputStream(openRead(options), messageDigest)) {
+            IOStreams.consume(inputStream);
+        }
+        return messageDigest.digest();
+    }
+
     OutputStream openWrite(WriteOption<?>... options) throws IOException;
 
+    default SeekableByteChannel openChannel(ReadOption<?>... options) throws IOException {
+        return openChannel(false, options);
+    }
+
+    default SeekableByteChannel openChannel(boolean writable, Option<?>... options) throws IOException {
+        if (writable) {
+            throw new UnsupportedOperationException("Writable channel not supported");
+        }
+        List<ReadOption<?>> readOptions = new ArrayList<>(options.length + 1);
+        for (Option<?> option : options) {
+            if (option instanceof ReadOption) {
+                readOptions.add((ReadOption<?>) option);
+            }
+        }
+        return new RangedReadChannel(range -> {
+            List<ReadOption<?>> rangeOptions = new ArrayList<>(readOptions);
+            rangeOptions.add(ReadOption.ofRange(range));
+            return openRead(rangeOptions.toArray(new ReadOption<?>[0]));
+        }, getSize(readOptions.toArray(new ReadOption<?>[0])), RangedReadChannel.DEFAULT_WINDOW_SIZE);
+    }
+
     long write(InputStream source, WriteOption<?>... options) throws IOException;
 
     default void write(byte[] data, WriteOption<?>... options) throws IOException {
@@ -108,10 +227,64 @@ public interface StorageResource extends Iterable<StorageResource> {
     }
 
 
+    default void copyTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        try (InputStream inputStream = openRead()) {
+            target.write(inputStream, options);
+        }
+    }
+
+    default void moveTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        copyTo(target, options);
+        delete();
+    }
+
+
     Stream<StorageResource> children() throws IOException;
 
     Collection<String> childrenNames() throws IOException;
 
+    default Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        return children().map(child -> {
+            try {
+                return new StorageResourceEntry(child.getName(), child, child.stat());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    default Stream<StorageResourceEntry> walk() throws IOException {
+        return walk(Integer.MAX_VALUE, entry -> true);
+    }
+
+    /**
+     * Lazily lists descendants up to {@code maxDepth} levels deep (1 = children only).
+     * Entry names are paths relative to this resource; directories precede their content.
+     * The returned stream should be closed.
+     */
+    default Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        return ResourceWalker.walk(this, maxDepth).filter(filter);
+    }
+
+    /**
+     * Lazily lists children following the entry the {@code continuationToken} was taken from
+     * ({@code null} lists from the beginning). The returned stream should be closed.
+     */
+    default Stream<StorageResourceEntry> childrenWithAttributes(String continuationToken) throws IOException {
+        if (continuationToken == null) {
+            return childrenWithAttributes();
+        }
+        //no native positioning, relies on a stable listing order
+        AtomicBoolean found = new AtomicBoolean(false);
+        return childrenWithAttributes().filter(entry -> {
+            if (found.get()) {
+                return true;
+            }
+            found.set(continuationToken.equals(entry.getContinuationToken()));
+            return false;
+        });
+    }
+
     default Stream<StorageResource> childrenFiles() throws IOException {
         return children().filter(resource -> {
             try {
@@ -191,6 +364,10 @@ public interface StorageResource extends Iterable<StorageResource> {
 
     boolean delete(DeleteOption<?>... options) throws IOException;
 
+    default AsyncStorageResource async() {
+        return getSession().async().wrap(this);
+    }
+
     default boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
         AtomicBoolean childrenDeleted = new AtomicBoolean(false);
         try {
@@ -214,6 +391,19 @@ public interface StorageResource extends Iterable<StorageResource> {
         return childrenDeleted.get();
     }
 
+    /**
+     * Deletes resources given by paths relative to this resource, returns how many of them were deleted.
+     */
+    default long deleteAll(Collection<String> subpaths, DeleteOption<?>... options) throws IOException {
+        long deleted = 0;
+        for (String subpath : subpaths) {
+            if (resolve(subpath).delete(options)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
     default boolean isEmpty() throws IOException {
         if (exists()) {
             if (isFile()) {
@@ -240,35 +430,26 @@ public interface StorageResource extends Iterable<StorageResource> {
         if (subpath == null || subpath.isEmpty()) {
             return this;
         }
-        if (subpath.equals("..") || subpath.startsWith("../")) {
-            return getParent().resolve(subpath.substring(Math.min(3, subpath.length())));
-        }
-        if (subpath.startsWith("/")) {
-            return getLocalRoot().resolve(subpath.substring(1));
-        }
 
-        int i = subpath.indexOf('/');
-        int j = subpath.indexOf('\\');
-        int tokenEnd;
-        if (i != -1 && j != -1) {
-            tokenEnd = Math.min(i, j);
-        } else if (i != -1) {
-            tokenEnd = i;
-        } else if (j != -1) {
-            tokenEnd = j;
-        } else {
-            tokenEnd = subpath.length();
+        //single pass over the segments, "/" and "\\" are both separators
+        StorageResource resource = this;
+        int start = 0;
+        if (subpath.charAt(0) == '/') {
+            resource = getLocalRoot();
+            start = 1;
         }
-
-        String name = subpath.substring(0, tokenEnd);
-        StorageResource resource;
-        if (!name.isEmpty()) {
-            resource = child(name);
-        } else {
-            resource = this;
-        }
-        if (tokenEnd != subpath.length()) {
-            return resource.resolve(subpath.substring(tokenEnd + 1));
+        int length = subpath.length();
+        for (int i = start; i <= length; i++) {
+            if (i == length || subpath.charAt(i) == '/' || subpath.charAt(i) == '\\') {
+                if (i > start) {
+                    if (i - start == 2 && subpath.charAt(start) == '.' && subpath.charAt(start + 1) == '.') {
+                        resource = resource.getParent();
+                    } else {
+                        resource = resource.child(subpath.substring(start, i));
+                    }
+                }
+                start = i + 1;
+            }
         }
         return resource;
     }
@@ -0,0 +1,52 @@
+package com.progralink.anystorage.api;
+
+public class StorageResourceEntry {
+    private final String name;
+    private final StorageResource resource;
+    private final ResourceAttributes attributes;
+    private final String continuationToken;
+
+    public StorageResourceEntry(String name, StorageResource resource, ResourceAttributes attributes) {
+        this(name, resource, attributes, defaultContinuationToken(name, attributes));
+    }
+
+    public StorageResourceEntry(String name, StorageResource resource, ResourceAttributes attributes, String continuationToken) {
+        this.name = name;
+        this.resource = resource;
+        this.attributes = attributes;
+        this.continuationToken = continuationToken;
+    }
+
+    private static String defaultContinuationToken(String name, ResourceAttributes attributes) {
+        //(virtual) directories are positioned after their content in sorted key spaces
+        if (attributes.isDirectory() && !attributes.isFile()) {
+            return name + "/";
+        }
+        return name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StorageResource getResource() {
+        return resource;
+    }
+
+    public ResourceAttributes getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Opaque position of this entry, to be passed to {@link StorageResource#childrenWithAttributes(String)}
+     * to resume the listing right after it.
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + attributes + "]";
+    }
+}
@@ -1,10 +1,14 @@
 package com.progralink.anystorage.api;
 
+import com.progralink.anystorage.api.async.AsyncStorageSession;
+import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.Executor;
 
 public interface StorageSession extends Closeable {
     String getName();
@@ -20,6 +24,18 @@ public interface StorageSession extends Closeable {
 
     boolean isSupported(Option<?> option);
 
+    default AsyncStorageSession async() {
+        return async(AsyncStorageSession.getDefaultExecutor());
+    }
+
+    default AsyncStorageSession async(Executor executor) {
+        return new AsyncStorageSession(this, executor);
+    }
+
+    default long deleteAll(Collection<String> paths, DeleteOption<?>... options) throws IOException {
+        return getRootResource().deleteAll(paths, options);
+    }
+
     default void clear() throws IOException {
         getRootResource().deleteDeep(false);
     }
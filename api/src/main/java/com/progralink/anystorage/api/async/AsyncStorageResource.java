@@ -0,0 +1,91 @@
+package com.progralink.anystorage.api.async;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.options.DeleteOption;
+import com.progralink.anystorage.api.options.ReadOption;
+import com.progralink.anystorage.api.options.WriteOption;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+public class AsyncStorageResource {
+    protected interface IOCallable<T> {
+        T call() throws IOException;
+    }
+
+
+    protected final StorageResource resource;
+    protected final Executor executor;
+
+    public AsyncStorageResource(StorageResource resource, Executor executor) {
+        this.resource = resource;
+        this.executor = executor;
+    }
+
+    public StorageResource getResource() {
+        return resource;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public CompletableFuture<byte[]> readFully(ReadOption<?>... options) {
+        return supply(() -> resource.readFully(options));
+    }
+
+    public CompletableFuture<Void> write(byte[] data, WriteOption<?>... options) {
+        return supply(() -> {
+            resource.write(data, options);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Long> write(InputStream source, WriteOption<?>... options) {
+        return supply(() -> resource.write(source, options));
+    }
+
+    public CompletableFuture<Boolean> exists() {
+        return supply(resource::exists);
+    }
+
+    public CompletableFuture<ResourceAttributes> stat() {
+        return supply(resource::stat);
+    }
+
+    public CompletableFuture<Long> getSize(ReadOption<?>... options) {
+        return supply(() -> resource.getSize(options));
+    }
+
+    public CompletableFuture<Collection<String>> childrenNames() {
+        return supply(resource::childrenNames);
+    }
+
+    public CompletableFuture<Boolean> delete(DeleteOption<?>... options) {
+        return supply(() -> resource.delete(options));
+    }
+
+    public CompletableFuture<Boolean> deleteDeep(boolean includeSelf, DeleteOption<?>... options) {
+        return supply(() -> resource.deleteDeep(includeSelf, options));
+    }
+
+    protected <T> CompletableFuture<T> supply(IOCallable<T> callable) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return callable.call();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public String toString() {
+        return resource.toString();
+    }
+}
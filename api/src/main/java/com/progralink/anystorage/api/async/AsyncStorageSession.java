@@ -0,0 +1,60 @@
+package com.progralink.anystorage.api.async;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AsyncStorageSession {
+    private final StorageSession session;
+    private final Executor executor;
+
+    public AsyncStorageSession(StorageSession session, Executor executor) {
+        this.session = session;
+        this.executor = executor;
+    }
+
+    public StorageSession getSession() {
+        return session;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public AsyncStorageResource getRootResource() {
+        return wrap(session.getRootResource());
+    }
+
+    public AsyncStorageResource getResource(String path) throws IOException {
+        return wrap(session.getResource(path));
+    }
+
+    public AsyncStorageResource wrap(StorageResource resource) {
+        return new AsyncStorageResource(resource, executor);
+    }
+
+    public static Executor getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final ExecutorService EXECUTOR = createDefaultExecutor();
+
+        private static ExecutorService createDefaultExecutor() {
+            try {
+                //virtual threads when running on Java 21+, while still compiling for Java 8
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "anystorage-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.progralink.anystorage.api.cache;
+
+/**
+ * Snapshot of cache counters.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long entryCount;
+    private final long sizeBytes;
+    private final long metadataHitCount;
+    private final long metadataMissCount;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long entryCount, long sizeBytes,
+               long metadataHitCount, long metadataMissCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.sizeBytes = sizeBytes;
+        this.metadataHitCount = metadataHitCount;
+        this.metadataMissCount = metadataMissCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests > 0 ? (double) hitCount / requests : 0;
+    }
+
+    /**
+     * Entries removed to make room for new ones (not counting expired and invalidated entries).
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getMetadataHitCount() {
+        return metadataHitCount;
+    }
+
+    public long getMetadataMissCount() {
+        return metadataMissCount;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hitCount + " misses=" + missCount + " evictions=" + evictionCount
+                + " entries=" + entryCount + " size=" + sizeBytes
+                + " metadataHits=" + metadataHitCount + " metadataMisses=" + metadataMissCount;
+    }
+}
@@ -0,0 +1,323 @@
+package com.progralink.anystorage.api.cache;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.delegate.DelegatingStorageResource;
+import com.progralink.anystorage.api.options.ByteRange;
+import com.progralink.anystorage.api.options.DeleteOption;
+import com.progralink.anystorage.api.options.Option;
+import com.progralink.anystorage.api.options.ReadOption;
+import com.progralink.anystorage.api.options.WriteOption;
+import com.progralink.jinout.streams.IOStreams;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+class CachingStorageResource extends DelegatingStorageResource {
+    private final CachingStorageSession cachingSession;
+    private final ContentCache cache;
+    private final MetadataCache metadataCache;
+
+    CachingStorageResource(CachingStorageSession session, StorageResource delegate) {
+        super(session, delegate);
+        this.cachingSession = session;
+        this.cache = session.getCache();
+        this.metadataCache = session.getMetadataCache();
+    }
+
+    @Override
+    public boolean exists() throws IOException {
+        if (!metadataCache.isEnabled()) {
+            return delegate.exists();
+        }
+        return metadataCache.exists(delegate.getLocalPath(), delegate::exists);
+    }
+
+    @Override
+    public boolean isFile() throws IOException {
+        if (!metadataCache.isEnabled()) {
+            return delegate.isFile();
+        }
+        return stat().isFile();
+    }
+
+    @Override
+    public boolean isDirectory() throws IOException {
+        if (!metadataCache.isEnabled()) {
+            return delegate.isDirectory();
+        }
+        return stat().isDirectory();
+    }
+
+    @Override
+    public long getSize(ReadOption<?>... options) throws IOException {
+        if (!metadataCache.isEnabled() || options.length > 0) {
+            return delegate.getSize(options);
+        }
+        ResourceAttributes attributes = stat();
+        if (attributes.isFile() && attributes.hasSize()) {
+            return attributes.getSize();
+        }
+        return delegate.getSize();
+    }
+
+    @Override
+    public ResourceAttributes stat() throws IOException {
+        if (!metadataCache.isEnabled()) {
+            return delegate.stat();
+        }
+        return metadataCache.stat(delegate.getLocalPath(), delegate::stat);
+    }
+
+    @Override
+    public InputStream openRead(ReadOption<?>... options) throws IOException {
+        ByteRange range = null;
+        for (ReadOption<?> option : options) {
+            if (!ReadOption.Name.RANGE.equals(option.getName())) {
+                //versions, validators etc. are always answered by the storage
+                return delegate.openRead(options);
+            }
+            range = (ByteRange) option.getValue();
+        }
+
+        String key = delegate.getLocalPath();
+        if (range == null) {
+            return cache.read(key, delegate::openRead);
+        }
+        InputStream cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return range.slice(cached);
+        }
+        return delegate.openRead(options);
+    }
+
+    @Override
+    public byte[] readFully(ReadOption<?>... options) throws IOException {
+        try (InputStream inputStream = openRead(options)) {
+            return IOStreams.readFully(inputStream);
+        }
+    }
+
+    @Override
+    public long readTo(File targetFile, ReadOption<?>... options) throws IOException {
+        return readTo(targetFile.toPath(), options);
+    }
+
+    @Override
+    public long readTo(Path targetFilePath, ReadOption<?>... options) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(targetFilePath)) {
+            try (InputStream inputStream = openRead(options)) {
+                return IOStreams.transfer(inputStream, outputStream);
+            }
+        }
+    }
+
+    @Override
+    public long readTo(WritableByteChannel target, ReadOption<?>... options) throws IOException {
+        try (InputStream inputStream = openRead(options)) {
+            return IOStreams.transfer(inputStream, Channels.newOutputStream(target));
+        }
+    }
+
+    @Override
+    public OutputStream openWrite(WriteOption<?>... options) throws IOException {
+        String key = delegate.getLocalPath();
+        cachingSession.invalidate(key);
+        return new FilterOutputStream(delegate.openWrite(options)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    cachingSession.invalidate(key);
+                }
+            }
+        };
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(ReadOption<?>... options) throws IOException {
+        return openChannel(false, options);
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(boolean writable, Option<?>... options) throws IOException {
+        if (!writable) {
+            return delegate.openChannel(false, options);
+        }
+        String key = delegate.getLocalPath();
+        cachingSession.invalidate(key);
+        return new InvalidatingChannel(delegate.openChannel(true, options), key);
+    }
+
+    @Override
+    public long write(InputStream source, WriteOption<?>... options) throws IOException {
+        try {
+            return delegate.write(source, options);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, WriteOption<?>... options) throws IOException {
+        try {
+            delegate.write(data, options);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length, WriteOption<?>... options) throws IOException {
+        try {
+            delegate.write(data, offset, length, options);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public long write(Path sourceFilePath, WriteOption<?>... options) throws IOException {
+        try {
+            return delegate.write(sourceFilePath, options);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public long write(File file, WriteOption<?>... options) throws IOException {
+        try {
+            return delegate.write(file, options);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void copyTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        try {
+            super.copyTo(target, options);
+        } finally {
+            invalidateTarget(target);
+        }
+    }
+
+    @Override
+    public void moveTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        try {
+            super.moveTo(target, options);
+        } finally {
+            invalidate();
+            invalidateTarget(target);
+        }
+    }
+
+    @Override
+    public boolean delete(DeleteOption<?>... options) throws IOException {
+        try {
+            return delegate.delete(options);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
+        String path = delegate.getLocalPath();
+        try {
+            return delegate.deleteDeep(includeSelf, options);
+        } finally {
+            cachingSession.invalidateTree(path);
+        }
+    }
+
+    @Override
+    public long deleteAll(Collection<String> subpaths, DeleteOption<?>... options) throws IOException {
+        try {
+            return delegate.deleteAll(subpaths, options);
+        } finally {
+            for (String subpath : subpaths) {
+                cachingSession.invalidate(delegate.resolve(subpath).getLocalPath());
+            }
+        }
+    }
+
+    private void invalidate() throws IOException {
+        cachingSession.invalidate(delegate.getLocalPath());
+    }
+
+    private void invalidateTarget(StorageResource target) throws IOException {
+        if (target.getSession() == session) {
+            cachingSession.invalidate(target.getLocalPath());
+        }
+    }
+
+    private class InvalidatingChannel implements SeekableByteChannel {
+        private final SeekableByteChannel channel;
+        private final String key;
+
+        private InvalidatingChannel(SeekableByteChannel channel, String key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                cachingSession.invalidate(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.progralink.anystorage.api.cache;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.delegate.DelegatingStorageSession;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache of file contents and (optionally) metadata in front of a (slow or remote) session.
+ * Changes made through this session invalidate the affected entries, changes made elsewhere are seen once the entry expires.
+ * <pre>
+ * StorageSession cached = CachingStorageSession.builder(session)
+ *         .maxBytes(256 * 1024 * 1024)
+ *         .ttl(Duration.ofMinutes(5))
+ *         .metadataTtl(Duration.ofSeconds(10))
+ *         .build();
+ * </pre>
+ */
+public class CachingStorageSession extends DelegatingStorageSession {
+    private final ContentCache cache;
+    private final MetadataCache metadataCache;
+
+    protected CachingStorageSession(Builder builder) {
+        super(builder.session);
+        this.cache = new ContentCache(builder.maxBytes, Math.min(builder.maxEntrySize, builder.maxBytes),
+                builder.ttl != null ? builder.ttl.toNanos() : 0, builder.diskDirectory);
+        Duration negativeMetadataTtl = builder.negativeMetadataTtl != null ? builder.negativeMetadataTtl : builder.metadataTtl;
+        this.metadataCache = new MetadataCache(builder.metadataTtl != null ? builder.metadataTtl.toNanos() : 0,
+                negativeMetadataTtl != null ? negativeMetadataTtl.toNanos() : 0, builder.maxMetadataEntries);
+    }
+
+    public static Builder builder(StorageSession session) {
+        return new Builder(session);
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats(metadataCache);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll(key -> true);
+        metadataCache.invalidateAll(key -> true);
+    }
+
+    ContentCache getCache() {
+        return cache;
+    }
+
+    MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    void invalidate(String path) {
+        cache.invalidate(path);
+        metadataCache.invalidate(path);
+    }
+
+    void invalidateTree(String path) {
+        String prefix = path + "/";
+        Predicate<String> inTree = key -> key.startsWith(prefix) || key.equals(path);
+        cache.invalidateAll(inTree);
+        metadataCache.invalidateAll(inTree);
+        metadataCache.invalidate(path);
+    }
+
+    @Override
+    public StorageResource wrap(StorageResource resource) {
+        return new CachingStorageResource(this, resource);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            cache.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    public static class Builder {
+        private final StorageSession session;
+        private long maxBytes = 64L * 1024 * 1024;
+        private long maxEntrySize = 8L * 1024 * 1024;
+        private Duration ttl;
+        private Path diskDirectory;
+        private Duration metadataTtl;
+        private Duration negativeMetadataTtl;
+        private int maxMetadataEntries = 10000;
+
+        private Builder(StorageSession session) {
+            this.session = session;
+        }
+
+        /**
+         * Total size of the cached contents, least recently used entries are evicted above it.
+         * Zero disables the content cache (e.g. to cache metadata only).
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Larger files are streamed from the session without being cached.
+         */
+        public Builder maxEntrySize(long maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+            return this;
+        }
+
+        /**
+         * How long an entry is served without asking the session, unlimited by default.
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Keeps the cached contents as files in the given directory instead of on heap.
+         */
+        public Builder diskDirectory(Path diskDirectory) {
+            this.diskDirectory = diskDirectory;
+            return this;
+        }
+
+        /**
+         * How long {@code exists()}, {@code isFile()}, {@code isDirectory()}, {@code getSize()} and {@code stat()} results
+         * are served without asking the session, metadata is not cached by default.
+         */
+        public Builder metadataTtl(Duration metadataTtl) {
+            this.metadataTtl = metadataTtl;
+            return this;
+        }
+
+        /**
+         * TTL of lookups of missing resources, the same as {@link #metadataTtl(Duration)} by default.
+         */
+        public Builder negativeMetadataTtl(Duration negativeMetadataTtl) {
+            this.negativeMetadataTtl = negativeMetadataTtl;
+            return this;
+        }
+
+        /**
+         * Number of paths with cached metadata, least recently used ones are evicted above it.
+         */
+        public Builder maxMetadataEntries(int maxMetadataEntries) {
+            this.maxMetadataEntries = maxMetadataEntries;
+            return this;
+        }
+
+        public CachingStorageSession build() {
+            return new CachingStorageSession(this);
+        }
+    }
+}
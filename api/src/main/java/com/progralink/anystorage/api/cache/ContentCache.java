@@ -0,0 +1,300 @@
+package com.progralink.anystorage.api.cache;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded LRU cache of whole contents, kept either on heap or as files in a local directory.
+ * Concurrent misses of the same key wait for a single load.
+ */
+class ContentCache implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long ttlNanos;
+    private final Path directory;
+
+    //access ordered, so iteration starts with the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long sizeBytes;
+    private long invalidations;
+
+    interface Loader {
+        InputStream open() throws IOException;
+    }
+
+    ContentCache(long maxBytes, long maxEntryBytes, long ttlNanos, Path directory) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.ttlNanos = ttlNanos;
+        this.directory = directory;
+    }
+
+    /**
+     * Cached content, null when not cached.
+     */
+    InputStream getIfPresent(String key) {
+        InputStream inputStream = open(lookup(key));
+        (inputStream != null ? hits : misses).incrementAndGet();
+        return inputStream;
+    }
+
+    InputStream read(String key, Loader loader) throws IOException {
+        if (maxEntryBytes <= 0) {
+            return loader.open();
+        }
+        InputStream cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> runningLoad = loading.putIfAbsent(key, load);
+        if (runningLoad != null) {
+            InputStream inputStream = open(await(runningLoad));
+            return inputStream != null ? inputStream : loader.open();
+        }
+
+        try {
+            long invalidationsBefore;
+            synchronized (this) {
+                invalidationsBefore = invalidations;
+            }
+            InputStream source = loader.open();
+            Entry entry;
+            try {
+                entry = directory != null ? loadToFile(source) : loadToHeap(source);
+            } catch (TooLargeException e) {
+                load.complete(null);
+                return e.remainingContent;
+            }
+
+            boolean stored;
+            synchronized (this) {
+                //content loaded while being changed through the session must not be cached
+                stored = invalidations == invalidationsBefore;
+                if (stored) {
+                    store(key, entry);
+                }
+            }
+            if (!stored) {
+                load.complete(null);
+                return entry.openOnce();
+            }
+            load.complete(entry);
+            InputStream inputStream = open(entry);
+            return inputStream != null ? inputStream : loader.open();
+        } catch (IOException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    synchronized void invalidate(String key) {
+        invalidations++;
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    synchronized void invalidateAll(Predicate<String> keyFilter) {
+        invalidations++;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> mapEntry = iterator.next();
+            if (keyFilter.test(mapEntry.getKey())) {
+                iterator.remove();
+                remove(mapEntry.getValue());
+            }
+        }
+    }
+
+    CacheStats getStats(MetadataCache metadataCache) {
+        synchronized (this) {
+            return new CacheStats(hits.get(), misses.get(), evictions.get(), entries.size(), sizeBytes,
+                    metadataCache.getHitCount(), metadataCache.getMissCount());
+        }
+    }
+
+    @Override
+    public void close() {
+        invalidateAll(key -> true);
+    }
+
+    private synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.loadedNanos > ttlNanos) {
+            entries.remove(key);
+            remove(entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            remove(previous);
+        }
+        sizeBytes += entry.size;
+
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (sizeBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            Entry evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            remove(evicted);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(Entry entry) {
+        sizeBytes -= entry.size;
+        entry.discard();
+    }
+
+    private static InputStream open(Entry entry) {
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return entry.open();
+        } catch (NoSuchFileException e) {
+            //evicted in the meantime
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> load) throws IOException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private Entry loadToHeap(InputStream source) throws IOException, TooLargeException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        boolean complete;
+        try {
+            complete = copyAtMost(source, buffer);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+        if (!complete) {
+            throw new TooLargeException(new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), source));
+        }
+        source.close();
+        byte[] data = buffer.toByteArray();
+        return new Entry(data.length, data, null);
+    }
+
+    private Entry loadToFile(InputStream source) throws IOException, TooLargeException {
+        Path file = directory.resolve(UUID.randomUUID() + ".cache");
+        try {
+            boolean complete;
+            try (OutputStream outputStream = Files.newOutputStream(file)) {
+                complete = copyAtMost(source, outputStream);
+            }
+            if (!complete) {
+                throw new TooLargeException(new SequenceInputStream(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE), source));
+            }
+            source.close();
+            return new Entry(Files.size(file), null, file);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Copies up to the entry size limit, returns false (with the source not fully read) when the content is larger.
+     */
+    private boolean copyAtMost(InputStream source, OutputStream target) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long copied = 0;
+        int n;
+        while ((n = source.read(buffer, 0, (int) Math.min(buffer.length, maxEntryBytes + 1 - copied))) > 0) {
+            target.write(buffer, 0, n);
+            copied += n;
+            if (copied > maxEntryBytes) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class TooLargeException extends Exception {
+        private final InputStream remainingContent;
+
+        private TooLargeException(InputStream remainingContent) {
+            super(null, null, false, false);
+            this.remainingContent = remainingContent;
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final byte[] data;
+        private final Path file;
+        private final long loadedNanos = System.nanoTime();
+
+        private Entry(long size, byte[] data, Path file) {
+            this.size = size;
+            this.data = data;
+            this.file = file;
+        }
+
+        private InputStream open() throws IOException {
+            return data != null ? new ByteArrayInputStream(data) : Files.newInputStream(file);
+        }
+
+        private InputStream openOnce() throws IOException {
+            return data != null ? new ByteArrayInputStream(data) : Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        private void discard() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignore) {
+                    //still open for reading on some platforms, left for the operating system
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.progralink.anystorage.api.cache;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Entry-count bounded cache of {@link ResourceAttributes} and existence checks, with separate TTLs
+ * for existing and missing resources.
+ */
+class MetadataCache {
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long invalidations;
+
+    interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    MetadataCache(long ttlNanos, long negativeTtlNanos, int maxEntries) {
+        this.ttlNanos = ttlNanos;
+        this.negativeTtlNanos = negativeTtlNanos;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MetadataCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return ttlNanos > 0 || negativeTtlNanos > 0;
+    }
+
+    ResourceAttributes stat(String key, Loader<ResourceAttributes> loader) throws IOException {
+        Entry entry = lookup(key);
+        if (entry != null && entry.attributes != null) {
+            hits.incrementAndGet();
+            return entry.attributes;
+        }
+        misses.incrementAndGet();
+        long invalidationsBefore = getInvalidations();
+        ResourceAttributes attributes = loader.load();
+        store(key, new Entry(attributes, attributes.exists(), attributes.exists() || attributes.isDirectory()), invalidationsBefore);
+        return attributes;
+    }
+
+    boolean exists(String key, Loader<Boolean> loader) throws IOException {
+        Entry entry = lookup(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.exists;
+        }
+        misses.incrementAndGet();
+        long invalidationsBefore = getInvalidations();
+        boolean exists = loader.load();
+        store(key, new Entry(null, exists, exists), invalidationsBefore);
+        return exists;
+    }
+
+    /**
+     * Invalidates the path and its ancestors, whose (virtual) directory state may change with it.
+     */
+    synchronized void invalidate(String key) {
+        invalidations++;
+        String current = key;
+        while (true) {
+            entries.remove(current);
+            int i = current.lastIndexOf('/');
+            if (i == -1) {
+                break;
+            }
+            current = current.substring(0, i);
+        }
+    }
+
+    synchronized void invalidateAll(Predicate<String> keyFilter) {
+        invalidations++;
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (keyFilter.test(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    long getHitCount() {
+        return hits.get();
+    }
+
+    long getMissCount() {
+        return misses.get();
+    }
+
+    private synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    private synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresNanos > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void store(String key, Entry entry, long invalidationsBefore) {
+        //a result loaded while the path was being changed through the session may already be stale
+        if (invalidations != invalidationsBefore) {
+            return;
+        }
+        long ttl = entry.positive ? ttlNanos : negativeTtlNanos;
+        if (ttl > 0) {
+            entry.expiresNanos = System.nanoTime() + ttl;
+            entries.put(key, entry);
+        }
+    }
+
+    private static final class Entry {
+        private final ResourceAttributes attributes;
+        private final boolean exists;
+        private final boolean positive;
+        private long expiresNanos;
+
+        private Entry(ResourceAttributes attributes, boolean exists, boolean positive) {
+            this.attributes = attributes;
+            this.exists = exists;
+            this.positive = positive;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.progralink.anystorage.api.delegate;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.ResourcePath;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.options.DeleteOption;
+import com.progralink.anystorage.api.options.Option;
+import com.progralink.anystorage.api.options.ReadOption;
+import com.progralink.anystorage.api.options.WriteOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Base of resource decorators: forwards every operation to the wrapped resource, so its native implementations are kept,
+ * and wraps the returned resources into resources of the decorating session.
+ */
+public class DelegatingStorageResource implements StorageResource {
+    protected final DelegatingStorageSession session;
+    protected final StorageResource delegate;
+
+    public DelegatingStorageResource(DelegatingStorageSession session, StorageResource delegate) {
+        this.session = session;
+        this.delegate = delegate;
+    }
+
+    public StorageResource getDelegate() {
+        return delegate;
+    }
+
+    protected StorageResource wrap(StorageResource resource) {
+        return resource != null ? session.wrap(resource) : null;
+    }
+
+    protected StorageResourceEntry wrap(StorageResourceEntry entry) {
+        return new StorageResourceEntry(entry.getName(), wrap(entry.getResource()), entry.getAttributes(), entry.getContinuationToken());
+    }
+
+    /**
+     * Targets of the same decorating session are passed unwrapped, so the delegate can use its native copy.
+     */
+    protected StorageResource unwrap(StorageResource resource) {
+        if (resource instanceof DelegatingStorageResource && resource.getSession() == session) {
+            return ((DelegatingStorageResource) resource).delegate;
+        }
+        return resource;
+    }
+
+    @Override
+    public StorageSession getSession() {
+        return session;
+    }
+
+    @Override
+    public StorageResource getParent() throws IOException {
+        return wrap(delegate.getParent());
+    }
+
+    @Override
+    public ResourcePath getResourcePath() throws IOException {
+        return delegate.getResourcePath();
+    }
+
+    @Override
+    public String getLocalPath() throws IOException {
+        return delegate.getLocalPath();
+    }
+
+    @Override
+    public boolean isFile() throws IOException {
+        return delegate.isFile();
+    }
+
+    @Override
+    public boolean isDirectory() throws IOException {
+        return delegate.isDirectory();
+    }
+
+    @Override
+    public boolean exists() throws IOException {
+        return delegate.exists();
+    }
+
+    @Override
+    public boolean hasChildren() throws IOException {
+        return delegate.hasChildren();
+    }
+
+    @Override
+    public String getName() throws IOException {
+        return delegate.getName();
+    }
+
+    @Override
+    public long getSize(ReadOption<?>... options) throws IOException {
+        return delegate.getSize(options);
+    }
+
+    @Override
+    public Instant getTimeCreated() throws IOException {
+        return delegate.getTimeCreated();
+    }
+
+    @Override
+    public Instant getTimeLastModified() throws IOException {
+        return delegate.getTimeLastModified();
+    }
+
+    @Override
+    public Instant getTimeLastAccess() throws IOException {
+        return delegate.getTimeLastAccess();
+    }
+
+    @Override
+    public ResourceAttributes stat() throws IOException {
+        return delegate.stat();
+    }
+
+    @Override
+    public byte[] readFully(ReadOption<?>... options) throws IOException {
+        return delegate.readFully(options);
+    }
+
+    @Override
+    public long readTo(File targetFile, ReadOption<?>... options) throws IOException {
+        return delegate.readTo(targetFile, options);
+    }
+
+    @Override
+    public long readTo(Path targetFilePath, ReadOption<?>... options) throws IOException {
+        return delegate.readTo(targetFilePath, options);
+    }
+
+    @Override
+    public long readTo(WritableByteChannel target, ReadOption<?>... options) throws IOException {
+        return delegate.readTo(target, options);
+    }
+
+    @Override
+    public InputStream openRead(ReadOption<?>... options) throws IOException {
+        return delegate.openRead(options);
+    }
+
+    @Override
+    public String getValidator() throws IOException {
+        return delegate.getValidator();
+    }
+
+    @Override
+    public Optional<byte[]> getChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        return delegate.getChecksum(algorithm, options);
+    }
+
+    @Override
+    public OutputStream openWrite(WriteOption<?>... options) throws IOException {
+        return delegate.openWrite(options);
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(ReadOption<?>... options) throws IOException {
+        return delegate.openChannel(options);
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(boolean writable, Option<?>... options) throws IOException {
+        return delegate.openChannel(writable, options);
+    }
+
+    @Override
+    public long write(InputStream source, WriteOption<?>... options) throws IOException {
+        return delegate.write(source, options);
+    }
+
+    @Override
+    public void write(byte[] data, WriteOption<?>... options) throws IOException {
+        delegate.write(data, options);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length, WriteOption<?>... options) throws IOException {
+        delegate.write(data, offset, length, options);
+    }
+
+    @Override
+    public long write(Path sourceFilePath, WriteOption<?>... options) throws IOException {
+        return delegate.write(sourceFilePath, options);
+    }
+
+    @Override
+    public long write(File file, WriteOption<?>... options) throws IOException {
+        return delegate.write(file, options);
+    }
+
+    @Override
+    public void copyTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        delegate.copyTo(unwrap(target), options);
+    }
+
+    @Override
+    public void moveTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        delegate.moveTo(unwrap(target), options);
+    }
+
+    @Override
+    public Stream<StorageResource> children() throws IOException {
+        return delegate.children().map(this::wrap);
+    }
+
+    @Override
+    public Collection<String> childrenNames() throws IOException {
+        return delegate.childrenNames();
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        return delegate.childrenWithAttributes().map(this::wrap);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes(String continuationToken) throws IOException {
+        return delegate.childrenWithAttributes(continuationToken).map(this::wrap);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        return delegate.walk(maxDepth, filter).map(this::wrap);
+    }
+
+    @Override
+    public StorageResource child(String name) throws IOException {
+        return wrap(delegate.child(name));
+    }
+
+    @Override
+    public boolean delete(DeleteOption<?>... options) throws IOException {
+        return delegate.delete(options);
+    }
+
+    @Override
+    public boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
+        return delegate.deleteDeep(includeSelf, options);
+    }
+
+    @Override
+    public long deleteAll(Collection<String> subpaths, DeleteOption<?>... options) throws IOException {
+        return delegate.deleteAll(subpaths, options);
+    }
+
+    @Override
+    public StorageResource resolve(String subpath) throws IOException {
+        return wrap(delegate.resolve(subpath));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DelegatingStorageResource that = (DelegatingStorageResource) o;
+        return session == that.session && Objects.equals(delegate, that.delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
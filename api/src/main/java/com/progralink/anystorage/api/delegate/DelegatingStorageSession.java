@@ -0,0 +1,87 @@
+package com.progralink.anystorage.api.delegate;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.options.DeleteOption;
+import com.progralink.anystorage.api.options.Option;
+import com.progralink.anystorage.api.options.Options;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Base of session decorators: forwards everything to the wrapped session,
+ * resources are wrapped by {@link #wrap(StorageResource)} on the way out.
+ */
+public abstract class DelegatingStorageSession implements StorageSession {
+    protected final StorageSession delegate;
+    private volatile StorageResource rootResource;
+
+    protected DelegatingStorageSession(StorageSession delegate) {
+        this.delegate = delegate;
+    }
+
+    public StorageSession getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Wraps a resource of the delegate session into a resource of this session.
+     */
+    public abstract StorageResource wrap(StorageResource resource);
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public StorageResource getRootResource() {
+        StorageResource result = rootResource;
+        if (result == null) {
+            result = wrap(delegate.getRootResource());
+            rootResource = result;
+        }
+        return result;
+    }
+
+    @Override
+    public StorageResource getResource(String path) throws IOException {
+        return wrap(delegate.getResource(path));
+    }
+
+    @Override
+    public Options getOptions() {
+        return delegate.getOptions();
+    }
+
+    @Override
+    public boolean isDirectoryless() {
+        return delegate.isDirectoryless();
+    }
+
+    @Override
+    public boolean isSupported(Option<?> option) {
+        return delegate.isSupported(option);
+    }
+
+    @Override
+    public long deleteAll(Collection<String> paths, DeleteOption<?>... options) throws IOException {
+        return getRootResource().deleteAll(paths, options);
+    }
+
+    @Override
+    public void clear() throws IOException {
+        getRootResource().deleteDeep(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + delegate + ")";
+    }
+}
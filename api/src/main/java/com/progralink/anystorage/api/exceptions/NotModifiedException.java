@@ -0,0 +1,24 @@
+package com.progralink.anystorage.api.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown by reads with {@link com.progralink.anystorage.api.options.ReadOption#ofIfNoneMatch(String)}
+ * when the content still matches the given validator, so no content has been transferred.
+ */
+public class NotModifiedException extends IOException {
+    public NotModifiedException() {
+    }
+
+    public NotModifiedException(String message) {
+        super(message);
+    }
+
+    public NotModifiedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public NotModifiedException(Throwable cause) {
+        super(cause);
+    }
+}
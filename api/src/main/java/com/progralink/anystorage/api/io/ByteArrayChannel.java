@@ -0,0 +1,130 @@
+package com.progralink.anystorage.api.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+
+public class ByteArrayChannel implements SeekableByteChannel {
+    private byte[] data;
+    private int size;
+    private int position = 0;
+    private final boolean writable;
+    private boolean modified = false;
+    private boolean open = true;
+
+    public ByteArrayChannel(byte[] data, boolean writable) {
+        this.data = data;
+        this.size = data.length;
+        this.writable = writable;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+        int n = Math.min(dst.remaining(), size - position);
+        dst.put(data, position, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        if (!writable) {
+            throw new NonWritableChannelException();
+        }
+        int n = src.remaining();
+        long end = (long) position + n;
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Content too large for memory storage");
+        }
+        detach();
+        if (end > data.length) {
+            data = Arrays.copyOf(data, (int) Math.max(end, Math.min(Integer.MAX_VALUE, data.length * 2L)));
+        }
+        src.get(data, position, n);
+        position += n;
+        size = Math.max(size, position);
+        return n;
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0 || newPosition > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("newPosition");
+        }
+        position = (int) newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long newSize) throws IOException {
+        ensureOpen();
+        if (!writable) {
+            throw new NonWritableChannelException();
+        }
+        if (newSize < 0) {
+            throw new IllegalArgumentException("newSize");
+        }
+        if (newSize < size) {
+            detach();
+            size = (int) newSize;
+        }
+        position = Math.min(position, size);
+        return this;
+    }
+
+    private void detach() {
+        //the initial array may be shared with the storage, so it is copied before the first modification
+        if (!modified) {
+            data = data.clone();
+            modified = true;
+        }
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+
+    public byte[] toByteArray() {
+        if (!modified && size == data.length) {
+            return data;
+        }
+        return Arrays.copyOf(data, size);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
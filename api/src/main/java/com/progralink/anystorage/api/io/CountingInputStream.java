@@ -0,0 +1,62 @@
+package com.progralink.anystorage.api.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Counts the bytes read and reports each read chunk to a listener as it happens.
+ */
+public class CountingInputStream extends FilterInputStream {
+    private final LongConsumer listener;
+    private long count;
+
+    public CountingInputStream(InputStream in, LongConsumer listener) {
+        super(in);
+        this.listener = listener;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            count(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long n) {
+        count += n;
+        if (listener != null) {
+            listener.accept(n);
+        }
+    }
+}
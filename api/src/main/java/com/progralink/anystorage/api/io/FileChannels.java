@@ -0,0 +1,45 @@
+package com.progralink.anystorage.api.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Copying between file channels and other channels without heap buffers:
+ * {@link FileChannel#transferTo} lets the kernel copy the data (sendfile, copy_file_range) where the platform supports it.
+ */
+public final class FileChannels {
+    private FileChannels() { }
+
+    /**
+     * Transfers {@code count} bytes of the source from the given position, less when the file ends earlier.
+     * Returns the number of transferred bytes.
+     */
+    public static long transfer(FileChannel source, long position, long count, WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            //a single call may transfer less, e.g. 2 GB at most on Linux
+            long n = source.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                if (position + transferred >= source.size()) {
+                    break;
+                }
+                //non-blocking targets may accept nothing for a while
+                Thread.yield();
+                continue;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Transfers the rest of the source from its current position and moves the position past the transferred bytes.
+     */
+    public static long transfer(FileChannel source, WritableByteChannel target) throws IOException {
+        long position = source.position();
+        long transferred = transfer(source, position, source.size() - position, target);
+        source.position(position + transferred);
+        return transferred;
+    }
+}
@@ -0,0 +1,157 @@
+package com.progralink.anystorage.api.io;
+
+import com.progralink.anystorage.api.options.ByteRange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+public class RangedReadChannel implements SeekableByteChannel {
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+
+    public interface RangeReader {
+        InputStream openRange(ByteRange range) throws IOException;
+    }
+
+
+    private final RangeReader reader;
+    private final long size;
+    private final byte[] window;
+    private long windowStart = 0;
+    private int windowLength = 0;
+    private long position = 0;
+    private boolean open = true;
+
+    public RangedReadChannel(RangeReader reader, long size, int windowSize) {
+        this.reader = reader;
+        this.size = size;
+        this.window = new byte[windowSize];
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            if (position < windowStart || position >= windowStart + windowLength) {
+                if (dst.remaining() >= window.length) {
+                    int n = readDirectly(dst);
+                    if (n <= 0) {
+                        break;
+                    }
+                    total += n;
+                    continue;
+                }
+                if (fillWindow(position) <= 0) {
+                    break;
+                }
+            }
+            int offset = (int) (position - windowStart);
+            int n = Math.min(dst.remaining(), windowLength - offset);
+            dst.put(window, offset, n);
+            position += n;
+            total += n;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    private int readDirectly(ByteBuffer dst) throws IOException {
+        int length = (int) Math.min(dst.remaining(), size - position);
+        int total = 0;
+        try (InputStream inputStream = reader.openRange(new ByteRange(position, length))) {
+            byte[] buffer = dst.hasArray() ? null : new byte[Math.min(length, window.length)];
+            while (total < length) {
+                int n;
+                if (buffer == null) {
+                    n = inputStream.read(dst.array(), dst.arrayOffset() + dst.position(), length - total);
+                    if (n > 0) {
+                        dst.position(dst.position() + n);
+                    }
+                } else {
+                    n = inputStream.read(buffer, 0, Math.min(buffer.length, length - total));
+                    if (n > 0) {
+                        dst.put(buffer, 0, n);
+                    }
+                }
+                if (n < 0) {
+                    break;
+                }
+                total += n;
+            }
+        }
+        position += total;
+        return total;
+    }
+
+    private int fillWindow(long start) throws IOException {
+        int length = (int) Math.min(window.length, size - start);
+        int total = 0;
+        try (InputStream inputStream = reader.openRange(new ByteRange(start, length))) {
+            while (total < length) {
+                int n = inputStream.read(window, total, length - total);
+                if (n < 0) {
+                    break;
+                }
+                total += n;
+            }
+        }
+        windowStart = start;
+        windowLength = total;
+        return total;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("newPosition");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.progralink.anystorage.api.metrics;
+
+/**
+ * Receives every recorded event, e.g. to forward them to a metrics library.
+ * Called on the thread doing the operation, so implementations should be fast and must not throw.
+ */
+public interface MetricsSink {
+    /**
+     * @param failure null when the operation succeeded
+     */
+    void operationCompleted(StorageMetrics source, String operation, long durationNanos, Throwable failure);
+
+    default void bytesRead(StorageMetrics source, long bytes) {
+    }
+
+    default void bytesWritten(StorageMetrics source, long bytes) {
+    }
+}
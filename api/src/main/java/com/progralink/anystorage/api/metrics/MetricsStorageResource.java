@@ -0,0 +1,301 @@
+package com.progralink.anystorage.api.metrics;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+import com.progralink.anystorage.api.delegate.DelegatingStorageResource;
+import com.progralink.anystorage.api.io.CountingInputStream;
+import com.progralink.anystorage.api.options.DeleteOption;
+import com.progralink.anystorage.api.options.Option;
+import com.progralink.anystorage.api.options.ReadOption;
+import com.progralink.anystorage.api.options.WriteOption;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.progralink.anystorage.api.metrics.MetricsStorageSession.Operation.*;
+
+class MetricsStorageResource extends DelegatingStorageResource {
+    private final StorageMetrics metrics;
+
+    private interface Call<T> {
+        T call() throws IOException;
+    }
+
+    MetricsStorageResource(MetricsStorageSession session, StorageResource delegate) {
+        super(session, delegate);
+        this.metrics = session.getMetrics();
+    }
+
+    private <T> T record(String operation, Call<T> call) throws IOException {
+        long start = metrics.started(operation);
+        Throwable failure = null;
+        try {
+            return call.call();
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            metrics.completed(operation, start, failure);
+        }
+    }
+
+    @Override
+    public boolean isFile() throws IOException {
+        return record(IS_FILE, delegate::isFile);
+    }
+
+    @Override
+    public boolean isDirectory() throws IOException {
+        return record(IS_DIRECTORY, delegate::isDirectory);
+    }
+
+    @Override
+    public boolean exists() throws IOException {
+        return record(EXISTS, delegate::exists);
+    }
+
+    @Override
+    public boolean hasChildren() throws IOException {
+        return record(LIST, delegate::hasChildren);
+    }
+
+    @Override
+    public long getSize(ReadOption<?>... options) throws IOException {
+        return record(GET_SIZE, () -> delegate.getSize(options));
+    }
+
+    @Override
+    public Instant getTimeCreated() throws IOException {
+        return record(GET_TIME, delegate::getTimeCreated);
+    }
+
+    @Override
+    public Instant getTimeLastModified() throws IOException {
+        return record(GET_TIME, delegate::getTimeLastModified);
+    }
+
+    @Override
+    public Instant getTimeLastAccess() throws IOException {
+        return record(GET_TIME, delegate::getTimeLastAccess);
+    }
+
+    @Override
+    public ResourceAttributes stat() throws IOException {
+        return record(STAT, delegate::stat);
+    }
+
+    @Override
+    public byte[] readFully(ReadOption<?>... options) throws IOException {
+        byte[] data = record(READ, () -> delegate.readFully(options));
+        metrics.addBytesRead(data.length);
+        return data;
+    }
+
+    @Override
+    public long readTo(File targetFile, ReadOption<?>... options) throws IOException {
+        long size = record(READ, () -> delegate.readTo(targetFile, options));
+        metrics.addBytesRead(size);
+        return size;
+    }
+
+    @Override
+    public long readTo(Path targetFilePath, ReadOption<?>... options) throws IOException {
+        long size = record(READ, () -> delegate.readTo(targetFilePath, options));
+        metrics.addBytesRead(size);
+        return size;
+    }
+
+    @Override
+    public long readTo(WritableByteChannel target, ReadOption<?>... options) throws IOException {
+        long size = record(READ, () -> delegate.readTo(target, options));
+        metrics.addBytesRead(size);
+        return size;
+    }
+
+    @Override
+    public InputStream openRead(ReadOption<?>... options) throws IOException {
+        InputStream inputStream = record(OPEN_READ, () -> delegate.openRead(options));
+        return new CountingInputStream(inputStream, metrics::addBytesRead);
+    }
+
+    @Override
+    public String getValidator() throws IOException {
+        return record(GET_VALIDATOR, delegate::getValidator);
+    }
+
+    @Override
+    public Optional<byte[]> getChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        return record(GET_CHECKSUM, () -> delegate.getChecksum(algorithm, options));
+    }
+
+    @Override
+    public OutputStream openWrite(WriteOption<?>... options) throws IOException {
+        long start = metrics.started(OPEN_WRITE);
+        OutputStream outputStream;
+        try {
+            outputStream = delegate.openWrite(options);
+        } catch (IOException | RuntimeException | Error e) {
+            metrics.completed(OPEN_WRITE, start, e);
+            throw e;
+        }
+        return new FilterOutputStream(outputStream) {
+            private Throwable failure;
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    out.write(b);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
+                metrics.addBytesWritten(1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
+                metrics.addBytesWritten(len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    out.close();
+                } catch (IOException | RuntimeException | Error e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    metrics.completed(OPEN_WRITE, start, failure);
+                }
+            }
+        };
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(ReadOption<?>... options) throws IOException {
+        return record(OPEN_CHANNEL, () -> delegate.openChannel(options));
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(boolean writable, Option<?>... options) throws IOException {
+        return record(OPEN_CHANNEL, () -> delegate.openChannel(writable, options));
+    }
+
+    @Override
+    public long write(InputStream source, WriteOption<?>... options) throws IOException {
+        long size = record(WRITE, () -> delegate.write(source, options));
+        metrics.addBytesWritten(size);
+        return size;
+    }
+
+    @Override
+    public void write(byte[] data, WriteOption<?>... options) throws IOException {
+        record(WRITE, () -> {
+            delegate.write(data, options);
+            return null;
+        });
+        metrics.addBytesWritten(data.length);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length, WriteOption<?>... options) throws IOException {
+        record(WRITE, () -> {
+            delegate.write(data, offset, length, options);
+            return null;
+        });
+        metrics.addBytesWritten(length);
+    }
+
+    @Override
+    public long write(Path sourceFilePath, WriteOption<?>... options) throws IOException {
+        long size = record(WRITE, () -> delegate.write(sourceFilePath, options));
+        metrics.addBytesWritten(size);
+        return size;
+    }
+
+    @Override
+    public long write(File file, WriteOption<?>... options) throws IOException {
+        long size = record(WRITE, () -> delegate.write(file, options));
+        metrics.addBytesWritten(size);
+        return size;
+    }
+
+    @Override
+    public void copyTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        record(COPY, () -> {
+            delegate.copyTo(unwrap(target), options);
+            return null;
+        });
+    }
+
+    @Override
+    public void moveTo(StorageResource target, WriteOption<?>... options) throws IOException {
+        record(MOVE, () -> {
+            delegate.moveTo(unwrap(target), options);
+            return null;
+        });
+    }
+
+    @Override
+    public Stream<StorageResource> children() throws IOException {
+        return record(LIST, delegate::children).map(this::wrap);
+    }
+
+    @Override
+    public Collection<String> childrenNames() throws IOException {
+        return record(LIST, delegate::childrenNames);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        return record(LIST, () -> delegate.childrenWithAttributes()).map(this::wrap);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes(String continuationToken) throws IOException {
+        return record(LIST, () -> delegate.childrenWithAttributes(continuationToken)).map(this::wrap);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        return record(LIST, () -> delegate.walk(maxDepth, filter)).map(this::wrap);
+    }
+
+    @Override
+    public boolean delete(DeleteOption<?>... options) throws IOException {
+        return record(DELETE, () -> delegate.delete(options));
+    }
+
+    @Override
+    public boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
+        return record(DELETE, () -> delegate.deleteDeep(includeSelf, options));
+    }
+
+    @Override
+    public long deleteAll(Collection<String> subpaths, DeleteOption<?>... options) throws IOException {
+        return record(DELETE, () -> delegate.deleteAll(subpaths, options));
+    }
+}
@@ -0,0 +1,147 @@
+package com.progralink.anystorage.api.metrics;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.delegate.DelegatingStorageSession;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records latency, errors and transferred bytes of every operation made through it.
+ * Streams are timed until they are opened ({@link Operation#OPEN_READ}) or closed ({@link Operation#OPEN_WRITE},
+ * as most storages commit written content on close), listings until the stream is created.
+ * <pre>
+ * MetricsStorageSession metered = MetricsStorageSession.builder(session)
+ *         .backendType(connector.getTypeLabel())
+ *         .registerMBean()
+ *         .build();
+ * </pre>
+ */
+public class MetricsStorageSession extends DelegatingStorageSession {
+    public static final String MBEAN_DOMAIN = "com.progralink.anystorage";
+
+    public static final class Operation {
+        private Operation() { }
+
+        public static final String EXISTS = "exists";
+        public static final String IS_FILE = "isFile";
+        public static final String IS_DIRECTORY = "isDirectory";
+        public static final String GET_SIZE = "getSize";
+        public static final String GET_TIME = "getTime";
+        public static final String STAT = "stat";
+        public static final String GET_VALIDATOR = "getValidator";
+        public static final String GET_CHECKSUM = "getChecksum";
+        public static final String READ = "read";
+        public static final String OPEN_READ = "openRead";
+        public static final String WRITE = "write";
+        public static final String OPEN_WRITE = "openWrite";
+        public static final String OPEN_CHANNEL = "openChannel";
+        public static final String COPY = "copy";
+        public static final String MOVE = "move";
+        public static final String LIST = "list";
+        public static final String DELETE = "delete";
+    }
+
+    private final StorageMetrics metrics;
+    private final ObjectName objectName;
+
+    protected MetricsStorageSession(Builder builder) {
+        super(builder.session);
+        String backendType = builder.backendType != null ? builder.backendType : builder.session.getClass().getSimpleName();
+        this.metrics = new StorageMetrics(builder.session.getName(), backendType, builder.sink);
+        this.objectName = builder.registerMBean ? registerMBean(metrics) : null;
+    }
+
+    public static Builder builder(StorageSession session) {
+        return new Builder(session);
+    }
+
+    public StorageMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Null unless registered with {@link Builder#registerMBean()}.
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public StorageResource wrap(StorageResource resource) {
+        return new MetricsStorageResource(this, resource);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+        } catch (JMException ignore) {
+            //already unregistered
+        } finally {
+            super.close();
+        }
+    }
+
+    private static ObjectName registerMBean(StorageMetrics metrics) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String baseName = MBEAN_DOMAIN + ":type=StorageMetrics,backend=" + ObjectName.quote(metrics.getBackendType()) + ",name=";
+        try {
+            //sessions of the same name get a numbered suffix
+            for (int i = 1; ; i++) {
+                ObjectName objectName = new ObjectName(baseName + ObjectName.quote(i == 1 ? metrics.getSessionName() : metrics.getSessionName() + "#" + i));
+                try {
+                    server.registerMBean(metrics, objectName);
+                    return objectName;
+                } catch (InstanceAlreadyExistsException e) {
+                    //try the next suffix
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBean", e);
+        }
+    }
+
+    public static class Builder {
+        private final StorageSession session;
+        private String backendType;
+        private MetricsSink sink;
+        private boolean registerMBean;
+
+        private Builder(StorageSession session) {
+            this.session = session;
+        }
+
+        /**
+         * Backend label of the metrics, usually {@code StorageConnector.getTypeLabel()}; the session class name by default.
+         */
+        public Builder backendType(String backendType) {
+            this.backendType = backendType;
+            return this;
+        }
+
+        public Builder sink(MetricsSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Registers the metrics in the platform MBean server until the session is closed.
+         */
+        public Builder registerMBean() {
+            this.registerMBean = true;
+            return this;
+        }
+
+        public MetricsStorageSession build() {
+            return new MetricsStorageSession(this);
+        }
+    }
+}
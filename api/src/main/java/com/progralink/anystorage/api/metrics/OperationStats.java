@@ -0,0 +1,88 @@
+package com.progralink.anystorage.api.metrics;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the latency and errors of one operation type.
+ */
+public final class OperationStats {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String operation;
+    private final long count;
+    private final long inFlight;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+    private final Map<String, Long> errors;
+
+    OperationStats(String operation, LatencyHistogram histogram, long inFlight, Map<String, Long> errors) {
+        this.operation = operation;
+        this.count = histogram.getCount();
+        this.inFlight = inFlight;
+        this.meanMillis = histogram.getMean() / NANOS_PER_MILLI;
+        this.p50Millis = histogram.getValueAtPercentile(50) / NANOS_PER_MILLI;
+        this.p95Millis = histogram.getValueAtPercentile(95) / NANOS_PER_MILLI;
+        this.p99Millis = histogram.getValueAtPercentile(99) / NANOS_PER_MILLI;
+        this.maxMillis = histogram.getMax() / NANOS_PER_MILLI;
+        this.errors = errors;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Completed calls, failed ones included.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP95Millis() {
+        return p95Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getErrorCount() {
+        long result = 0;
+        for (long n : errors.values()) {
+            result += n;
+        }
+        return result;
+    }
+
+    /**
+     * Failed calls by exception class name.
+     */
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d inFlight=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms errors=%s",
+                operation, count, inFlight, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis, errors);
+    }
+}
@@ -0,0 +1,152 @@
+package com.progralink.anystorage.api.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms, in-flight and error counts per operation type, and transferred bytes of one session.
+ */
+public class StorageMetrics implements StorageMetricsMXBean {
+    private final String sessionName;
+    private final String backendType;
+    private final MetricsSink sink;
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    StorageMetrics(String sessionName, String backendType, MetricsSink sink) {
+        this.sessionName = sessionName;
+        this.backendType = backendType;
+        this.sink = sink;
+    }
+
+    @Override
+    public String getSessionName() {
+        return sessionName;
+    }
+
+    @Override
+    public String getBackendType() {
+        return backendType;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getInFlight() {
+        long result = 0;
+        for (OperationMetrics operationMetrics : operations.values()) {
+            result += operationMetrics.inFlight.get();
+        }
+        return result;
+    }
+
+    @Override
+    public long getErrorCount() {
+        long result = 0;
+        for (OperationMetrics operationMetrics : operations.values()) {
+            for (LongAdder n : operationMetrics.errors.values()) {
+                result += n.sum();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> result = new TreeMap<>();
+        for (Map.Entry<String, OperationMetrics> entry : operations.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toStats(entry.getKey()));
+        }
+        return result;
+    }
+
+    public OperationStats getOperation(String operation) {
+        OperationMetrics operationMetrics = operations.get(operation);
+        return operationMetrics != null ? operationMetrics.toStats(operation) : null;
+    }
+
+    public LatencyHistogram getHistogram(String operation) {
+        OperationMetrics operationMetrics = operations.get(operation);
+        return operationMetrics != null ? operationMetrics.histogram : null;
+    }
+
+    /**
+     * @return start time to be passed to {@link #completed(String, long, Throwable)}
+     */
+    long started(String operation) {
+        metricsOf(operation).inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void completed(String operation, long startNanos, Throwable failure) {
+        long durationNanos = System.nanoTime() - startNanos;
+        OperationMetrics operationMetrics = metricsOf(operation);
+        operationMetrics.inFlight.decrementAndGet();
+        operationMetrics.histogram.record(durationNanos);
+        if (failure != null) {
+            operationMetrics.errors.computeIfAbsent(failure.getClass().getName(), name -> new LongAdder()).increment();
+        }
+        if (sink != null) {
+            sink.operationCompleted(this, operation, durationNanos, failure);
+        }
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+        if (sink != null) {
+            sink.bytesRead(this, bytes);
+        }
+    }
+
+    void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+        if (sink != null) {
+            sink.bytesWritten(this, bytes);
+        }
+    }
+
+    private OperationMetrics metricsOf(String operation) {
+        OperationMetrics result = operations.get(operation);
+        if (result == null) {
+            result = operations.computeIfAbsent(operation, name -> new OperationMetrics());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(backendType).append(' ').append(sessionName)
+                .append(": read=").append(getBytesRead()).append("B written=").append(getBytesWritten()).append('B');
+        for (OperationStats stats : getOperations().values()) {
+            result.append("\n  ").append(stats);
+        }
+        return result.toString();
+    }
+
+    private static final class OperationMetrics {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong inFlight = new AtomicLong();
+        private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private OperationStats toStats(String operation) {
+            Map<String, Long> errorCounts = new TreeMap<>();
+            for (Map.Entry<String, LongAdder> entry : errors.entrySet()) {
+                errorCounts.put(entry.getKey(), entry.getValue().sum());
+            }
+            return new OperationStats(operation, histogram, inFlight.get(), errorCounts);
+        }
+    }
+}
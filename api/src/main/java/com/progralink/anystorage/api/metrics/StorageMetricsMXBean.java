@@ -0,0 +1,23 @@
+package com.progralink.anystorage.api.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link StorageMetrics}, registered as
+ * {@code com.progralink.anystorage:type=StorageMetrics,backend=...,name=...}.
+ */
+public interface StorageMetricsMXBean {
+    String getSessionName();
+
+    String getBackendType();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    long getInFlight();
+
+    long getErrorCount();
+
+    Map<String, OperationStats> getOperations();
+}
@@ -0,0 +1,94 @@
+package com.progralink.anystorage.api.options;
+
+import com.progralink.anystorage.api.io.BoundedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+public final class ByteRange {
+    private final long offset;
+    private final long length;
+
+    public ByteRange(long offset, long length) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset");
+        }
+        this.offset = offset;
+        this.length = length < 0 ? -1 : length;
+    }
+
+    public static ByteRange from(long offset) {
+        return new ByteRange(offset, -1);
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public boolean hasLength() {
+        return length != -1;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public long getLastPosition() {
+        if (!hasLength()) {
+            return -1;
+        }
+        return offset + length - 1;
+    }
+
+    public long getLengthWithin(long totalSize) {
+        long remaining = Math.max(0, totalSize - offset);
+        if (hasLength()) {
+            return Math.min(length, remaining);
+        }
+        return remaining;
+    }
+
+    public InputStream slice(InputStream inputStream) throws IOException {
+        long toSkip = offset;
+        while (toSkip > 0) {
+            long skipped = inputStream.skip(toSkip);
+            if (skipped <= 0) {
+                if (inputStream.read() == -1) {
+                    break;
+                }
+                skipped = 1;
+            }
+            toSkip -= skipped;
+        }
+        if (hasLength()) {
+            return new BoundedInputStream(inputStream, length);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ByteRange that = (ByteRange) o;
+        return offset == that.offset && length == that.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, length);
+    }
+
+    @Override
+    public String toString() {
+        if (hasLength()) {
+            return offset + "-" + getLastPosition();
+        }
+        return offset + "-";
+    }
+}
@@ -0,0 +1,71 @@
+package com.progralink.anystorage.api.options;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable snapshot of options with a single map lookup per {@link #get(String)}.
+ * {@link HierarchicalOptions} chains are flattened up front, lookups in any other {@link Options} are memoized.
+ */
+public final class FlatOptions implements Options {
+    private static final Object ABSENT = new Object();
+
+    private final Map<String, Object> values;
+    private final Options fallback;
+    private final ConcurrentMap<String, Object> fallbackValues;
+
+    private FlatOptions(Map<String, Object> values, Options fallback) {
+        this.values = values;
+        this.fallback = fallback;
+        this.fallbackValues = fallback != null ? new ConcurrentHashMap<>() : null;
+    }
+
+    public static FlatOptions of(Options options) {
+        if (options instanceof FlatOptions) {
+            return (FlatOptions) options;
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        Options current = options;
+        while (current instanceof HierarchicalOptions) {
+            HierarchicalOptions hierarchicalOptions = (HierarchicalOptions) current;
+            //closer levels override their parents, explicitly removed names hide parent values
+            for (Map.Entry<String, Object> entry : hierarchicalOptions.getMap().entrySet()) {
+                values.putIfAbsent(entry.getKey(), entry.getValue() != null ? entry.getValue() : ABSENT);
+            }
+            current = hierarchicalOptions.getParent();
+        }
+
+        Options fallback = current;
+        if (current instanceof FlatOptions) {
+            FlatOptions flatOptions = (FlatOptions) current;
+            for (Map.Entry<String, Object> entry : flatOptions.values.entrySet()) {
+                values.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            fallback = flatOptions.fallback;
+        }
+        return new FlatOptions(values, fallback);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+        Object value = values.get(name);
+        if (value == null && fallback != null) {
+            value = fallbackValues.get(name);
+            if (value == null) {
+                value = fallback.get(name);
+                if (value == null) {
+                    value = ABSENT;
+                }
+                fallbackValues.putIfAbsent(name, value);
+            }
+        }
+        if (value == ABSENT) {
+            return null;
+        }
+        return (T) value;
+    }
+}
@@ -40,6 +40,14 @@ public class HierarchicalOptions implements Options {
         }
     }
 
+    Options getParent() {
+        return parent;
+    }
+
+    Map<String, Object> getMap() {
+        return map;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T get(String name) {
@@ -98,11 +98,7 @@ public interface Options {
         if (options.length == 0) {
             return baseOptions;
         }
-
-        Options result = baseOptions;
-        for (Option<?> option : options) {
-            result = result.with(option.getName(), option.getValue());
-        }
-        return result;
+        //no copy, option arrays are not modified after being passed
+        return new OverlayOptions(baseOptions, options);
     }
 }
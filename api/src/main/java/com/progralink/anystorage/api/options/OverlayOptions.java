@@ -0,0 +1,26 @@
+package com.progralink.anystorage.api.options;
+
+/**
+ * Per-call options on top of (session) base options, backed directly by the passed option array.
+ */
+class OverlayOptions implements Options {
+    private final Options base;
+    private final Option<?>[] options;
+
+    OverlayOptions(Options base, Option<?>[] options) {
+        this.base = base;
+        this.options = options;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+        //later options override earlier ones
+        for (int i = options.length - 1; i >= 0; i--) {
+            if (options[i].getName().equals(name)) {
+                return (T) options[i].getValue();
+            }
+        }
+        return base != null ? base.get(name) : null;
+    }
+}
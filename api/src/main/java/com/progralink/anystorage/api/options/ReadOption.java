@@ -5,10 +5,19 @@ public class ReadOption<T> extends Option<T> {
         private Name() { }
 
         public static final String OLDEST_VERSION = "OLDEST_VERSION";
+        public static final String RANGE = "RANGE";
+        public static final String COMPUTE_CHECKSUM = "COMPUTE_CHECKSUM";
+        public static final String IF_NONE_MATCH = "IF_NONE_MATCH";
     }
 
 
     public static final ReadOption<Boolean> OLDEST_VERSION = new ReadOption<>(Name.OLDEST_VERSION, true);
+    public static final ReadOption<Boolean> COMPUTE_CHECKSUM = new ReadOption<>(Name.COMPUTE_CHECKSUM, true);
+
+    public static ReadOption<ByteRange> ofRange(ByteRange value) { return new ReadOption<>(Name.RANGE, value); }
+    public static ReadOption<ByteRange> ofRange(long offset, long length) { return ofRange(new ByteRange(offset, length)); }
+    public static ReadOption<ByteRange> ofOffset(long offset) { return ofRange(ByteRange.from(offset)); }
+    public static ReadOption<String> ofIfNoneMatch(String validator) { return new ReadOption<>(Name.IF_NONE_MATCH, validator); }
 
 
     public ReadOption(String name, T value) {
@@ -0,0 +1,38 @@
+package com.progralink.anystorage.api.pool;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.delegate.DelegatingStorageResource;
+import com.progralink.anystorage.api.delegate.DelegatingStorageSession;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle of a shared session, {@link #close()} releases it instead of closing the underlying session.
+ * Resources belong to the handle, so closing their {@link StorageResource#getSession()} releases only this handle.
+ * They work the same after the handle is closed as long as the pool keeps the session open.
+ */
+public class PooledStorageSession extends DelegatingStorageSession {
+    private final StorageSessionPool pool;
+    private final StorageSessionPool.Entry entry;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    PooledStorageSession(StorageSessionPool pool, StorageSession delegate, StorageSessionPool.Entry entry) {
+        super(delegate);
+        this.pool = pool;
+        this.entry = entry;
+    }
+
+    @Override
+    public StorageResource wrap(StorageResource resource) {
+        return new DelegatingStorageResource(this, resource);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (released.compareAndSet(false, true)) {
+            pool.release(entry);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.progralink.anystorage.api.pool;
+
+/**
+ * Snapshot of session pool counters.
+ */
+public final class SessionPoolStats {
+    private final int activeSessions;
+    private final int idleSessions;
+    private final long hitCount;
+    private final long missCount;
+    private final long closedCount;
+
+    SessionPoolStats(int activeSessions, int idleSessions, long hitCount, long missCount, long closedCount) {
+        this.activeSessions = activeSessions;
+        this.idleSessions = idleSessions;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.closedCount = closedCount;
+    }
+
+    /**
+     * Open sessions with at least one user.
+     */
+    public int getActiveSessions() {
+        return activeSessions;
+    }
+
+    /**
+     * Open sessions without users, waiting for reuse or the idle timeout.
+     */
+    public int getIdleSessions() {
+        return idleSessions;
+    }
+
+    public int getOpenSessions() {
+        return activeSessions + idleSessions;
+    }
+
+    /**
+     * Requests served by an already open session.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Requests that had to connect.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests > 0 ? (double) hitCount / requests : 0;
+    }
+
+    public long getClosedCount() {
+        return closedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + activeSessions + " idle=" + idleSessions + " hits=" + hitCount
+                + " misses=" + missCount + " closed=" + closedCount;
+    }
+}
@@ -0,0 +1,270 @@
+package com.progralink.anystorage.api.pool;
+
+import com.progralink.anystorage.api.StorageConnectors;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.options.Options;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of shared sessions keyed by name, connection string and options, so that resolving the same storage again
+ * is a map lookup instead of a new connection (S3 client, SMB context, JDBC connection...).
+ * Sessions are reference counted: closing a session returned by {@link #provide(String, String, Options)} releases it,
+ * the underlying session is closed once it was not used for the idle timeout.
+ * Options are compared by identity, pass the same instance (e.g. {@link Options#DEFAULTS}) to share a session.
+ * <pre>
+ * StorageSessionPool pool = StorageSessionPool.builder(new StorageConnectors())
+ *         .idleTimeout(Duration.ofMinutes(5))
+ *         .build();
+ * try (StorageSession session = pool.provide("reports", "s3://...").get()) {
+ *     session.getResource("/report.pdf").readFully();
+ * }
+ * </pre>
+ */
+public class StorageSessionPool implements Closeable {
+    private final StorageConnectors connectors;
+    private final long idleTimeoutNanos;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reaper;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong closedCount = new AtomicLong();
+    private volatile boolean closed;
+
+    protected StorageSessionPool(Builder builder) {
+        this.connectors = builder.connectors;
+        this.idleTimeoutNanos = builder.idleTimeout.toNanos();
+        if (idleTimeoutNanos > 0 && builder.reapIdleSessions) {
+            reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "storage-session-pool-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(TimeUnit.MILLISECONDS.toNanos(10), idleTimeoutNanos / 2);
+            reaper.scheduleAtFixedRate(this::closeIdleSessions, period, period, TimeUnit.NANOSECONDS);
+        } else {
+            reaper = null;
+        }
+    }
+
+    public static Builder builder(StorageConnectors connectors) {
+        return new Builder(connectors);
+    }
+
+    public Optional<StorageSession> provide(String name, String connectionString) throws IOException {
+        return provide(name, connectionString, Options.DEFAULTS);
+    }
+
+    /**
+     * Returns a shared session, connecting only if there is none for the same name, connection string and options.
+     * The returned session must be closed to release it.
+     */
+    public Optional<StorageSession> provide(String name, String connectionString, Options options) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Session pool closed");
+        }
+        Key key = new Key(name, connectionString, options);
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, Entry::new);
+            //connecting holds only the entry, other storages are not blocked by a slow handshake
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (entry.session == null) {
+                    Optional<StorageSession> session;
+                    try {
+                        session = connectors.provide(name, connectionString, options);
+                    } catch (IOException | RuntimeException e) {
+                        remove(entry);
+                        throw e;
+                    }
+                    if (!session.isPresent()) {
+                        remove(entry);
+                        return Optional.empty();
+                    }
+                    missCount.incrementAndGet();
+                    entry.session = session.get();
+                } else {
+                    hitCount.incrementAndGet();
+                }
+                entry.references++;
+                return Optional.of(new PooledStorageSession(this, entry.session, entry));
+            }
+        }
+    }
+
+    void release(Entry entry) throws IOException {
+        synchronized (entry) {
+            if (--entry.references > 0 || entry.removed) {
+                return;
+            }
+            entry.lastReleased = System.nanoTime();
+            if (idleTimeoutNanos > 0 && !closed) {
+                return;
+            }
+            remove(entry);
+        }
+        closeSession(entry.session);
+    }
+
+    /**
+     * Closes the sessions not used for the idle timeout, called periodically unless disabled in the builder.
+     */
+    public int closeIdleSessions() {
+        long now = System.nanoTime();
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.removed || entry.references > 0 || entry.session == null || now - entry.lastReleased < idleTimeoutNanos) {
+                    continue;
+                }
+                remove(entry);
+            }
+            try {
+                closeSession(entry.session);
+            } catch (IOException | RuntimeException ignore) {
+                //the session is gone either way
+            }
+            count++;
+        }
+        return count;
+    }
+
+    public SessionPoolStats getStats() {
+        int active = 0;
+        int idle = 0;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.session != null && !entry.removed) {
+                    if (entry.references > 0) {
+                        active++;
+                    } else {
+                        idle++;
+                    }
+                }
+            }
+        }
+        return new SessionPoolStats(active, idle, hitCount.get(), missCount.get(), closedCount.get());
+    }
+
+    /**
+     * Closes all pooled sessions, including the ones still in use.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+        IOException failure = null;
+        for (Entry entry : entries.values()) {
+            synchronized (entry) {
+                if (entry.removed || entry.session == null) {
+                    continue;
+                }
+                remove(entry);
+            }
+            try {
+                closeSession(entry.session);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void remove(Entry entry) {
+        entry.removed = true;
+        entries.remove(entry.key, entry);
+    }
+
+    private void closeSession(StorageSession session) throws IOException {
+        closedCount.incrementAndGet();
+        session.close();
+    }
+
+    private static final class Key {
+        private final String name;
+        private final String connectionString;
+        private final Options options;
+
+        Key(String name, String connectionString, Options options) {
+            this.name = name;
+            this.connectionString = connectionString;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(name, that.name) && connectionString.equals(that.connectionString) && options == that.options;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, connectionString, System.identityHashCode(options));
+        }
+    }
+
+    static final class Entry {
+        private final Key key;
+        private StorageSession session;
+        private int references;
+        private long lastReleased;
+        private boolean removed;
+
+        Entry(Key key) {
+            this.key = key;
+        }
+    }
+
+    public static class Builder {
+        private final StorageConnectors connectors;
+        private Duration idleTimeout = Duration.ofMinutes(5);
+        private boolean reapIdleSessions = true;
+
+        private Builder(StorageConnectors connectors) {
+            this.connectors = connectors;
+        }
+
+        /**
+         * How long an unused session is kept open, zero closes it as soon as the last user releases it.
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Disables the background thread closing idle sessions, {@link #closeIdleSessions()} has to be called instead.
+         */
+        public Builder manualIdleCheck() {
+            this.reapIdleSessions = false;
+            return this;
+        }
+
+        public StorageSessionPool build() {
+            return new StorageSessionPool(this);
+        }
+    }
+}
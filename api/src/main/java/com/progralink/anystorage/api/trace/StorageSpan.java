@@ -0,0 +1,23 @@
+package com.progralink.anystorage.api.trace;
+
+/**
+ * One traced operation, ended exactly once.
+ */
+public interface StorageSpan {
+    StorageSpan NOOP = new StorageSpan() {
+        @Override
+        public void addBytes(long bytes) {
+        }
+
+        @Override
+        public void end(Throwable failure) {
+        }
+    };
+
+    void addBytes(long bytes);
+
+    /**
+     * @param failure null when the operation succeeded
+     */
+    void end(Throwable failure);
+}
@@ -0,0 +1,14 @@
+package com.progralink.anystorage.api.trace;
+
+/**
+ * Service provider receiving storage operations, found with {@link java.util.ServiceLoader}
+ * (e.g. the JDK Flight Recorder events of {@code anystorage-jfr}).
+ */
+public interface StorageTracer {
+    /**
+     * Checked before every operation, nothing is prepared for tracing while false.
+     */
+    boolean isEnabled();
+
+    StorageSpan begin(String sessionName, String backendType, String operation, String path);
+}
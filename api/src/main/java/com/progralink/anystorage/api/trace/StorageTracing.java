@@ -0,0 +1,158 @@
+package com.progralink.anystorage.api.trace;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.io.CountingInputStream;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Entry point of the instrumentation: spans of the {@link StorageTracer} found on the class path,
+ * {@link StorageSpan#NOOP} (without looking up the path or wrapping streams) when there is none or it is disabled.
+ */
+public final class StorageTracing {
+    private static final StorageTracer TRACER = load();
+
+    private StorageTracing() { }
+
+    public static boolean isEnabled() {
+        return TRACER != null && TRACER.isEnabled();
+    }
+
+    public static StorageSpan begin(String operation, StorageResource resource) {
+        if (!isEnabled()) {
+            return StorageSpan.NOOP;
+        }
+        String path;
+        try {
+            path = resource.getLocalPath();
+        } catch (IOException e) {
+            path = resource.toString();
+        }
+        return begin(operation, resource.getSession(), path);
+    }
+
+    public static StorageSpan begin(String operation, StorageSession session, String path) {
+        if (!isEnabled()) {
+            return StorageSpan.NOOP;
+        }
+        return TRACER.begin(session.getName(), getBackendType(session), operation, path);
+    }
+
+    /**
+     * For calls made below the session, e.g. by an instrumented client library.
+     */
+    public static StorageSpan begin(String operation, String sessionName, String backendType, String path) {
+        if (!isEnabled()) {
+            return StorageSpan.NOOP;
+        }
+        return TRACER.begin(sessionName, backendType, operation, path);
+    }
+
+    /**
+     * Short backend name derived from the session class, e.g. {@code "S3"} for {@code S3StorageSession}.
+     */
+    public static String getBackendType(StorageSession session) {
+        String name = session.getClass().getSimpleName();
+        if (name.endsWith("StorageSession") && name.length() > "StorageSession".length()) {
+            return name.substring(0, name.length() - "StorageSession".length());
+        }
+        return name;
+    }
+
+    /**
+     * Ends the span when the stream is closed, counting the bytes read.
+     */
+    public static InputStream trace(StorageSpan span, InputStream inputStream) {
+        if (span == StorageSpan.NOOP) {
+            return inputStream;
+        }
+        return new CountingInputStream(inputStream, span::addBytes) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                Throwable failure = null;
+                try {
+                    super.close();
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    span.end(failure);
+                }
+            }
+        };
+    }
+
+    /**
+     * Ends the span when the stream is closed, counting the bytes written.
+     */
+    public static OutputStream trace(StorageSpan span, OutputStream outputStream) {
+        if (span == StorageSpan.NOOP) {
+            return outputStream;
+        }
+        return new FilterOutputStream(outputStream) {
+            private Throwable failure;
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    out.write(b);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
+                span.addBytes(1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
+                span.addBytes(len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    out.close();
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    span.end(failure);
+                }
+            }
+        };
+    }
+
+    private static StorageTracer load() {
+        try {
+            Iterator<StorageTracer> iterator = ServiceLoader.load(StorageTracer.class).iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        } catch (ServiceConfigurationError | LinkageError e) {
+            //e.g. a tracer built for a newer Java than the running one
+            return null;
+        }
+    }
+}
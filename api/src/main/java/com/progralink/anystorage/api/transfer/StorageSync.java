@@ -0,0 +1,292 @@
+package com.progralink.anystorage.api.transfer;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.ResourceWalker;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.exceptions.NotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Makes the target tree mirror the source tree, transferring only new and changed files.
+ * Both trees are walked in sorted order and merged in a single pass, so neither is held in memory.
+ * A file is considered unchanged when both sides have the same size and either the same checksum
+ * (when both storages expose one of the same algorithm) or a target modified no earlier than the source.
+ * Files without a known size or last modified time are always transferred.
+ * <p>
+ * With a {@link Builder#manifest(StorageResource) manifest}, the state recorded by the previous run
+ * replaces the listing of the target (e.g. to avoid listing a whole bucket), changes made directly in the target are then not detected.
+ */
+public final class StorageSync {
+    public static final Duration DEFAULT_TIME_TOLERANCE = Duration.ofSeconds(1);
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final StorageTransfer transfer;
+    private final boolean deleteExtra;
+    private final boolean compareChecksums;
+    private final Duration timeTolerance;
+    private final StorageResource manifest;
+
+    private StorageSync(Builder builder) {
+        this.transfer = builder.transfer != null ? builder.transfer : StorageTransfer.builder().preserveLastModifiedTime(true).build();
+        this.deleteExtra = builder.deleteExtra;
+        this.compareChecksums = builder.compareChecksums;
+        this.timeTolerance = builder.timeTolerance;
+        this.manifest = builder.manifest;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public SyncResult sync(StorageSession source, StorageSession target) throws IOException, InterruptedException {
+        return sync(source.getRootResource(), target.getRootResource());
+    }
+
+    public SyncResult sync(StorageResource source, StorageResource target) throws IOException, InterruptedException {
+        //an unavailable source must not look like an empty tree, especially when deleting extra files
+        if (!source.isDirectory()) {
+            throw new NotFoundException("Source directory not found: " + source.getLocalPath());
+        }
+
+        boolean useManifest = manifest != null && manifest.exists();
+        Path manifestFile = manifest != null ? Files.createTempFile("anystorage-sync", ".manifest.gz") : null;
+        try {
+            Merger merger = new Merger(source, target, useManifest, manifestFile);
+            TransferProgress progress = transfer.start(merger::start, target);
+            try {
+                progress.await();
+            } catch (InterruptedException e) {
+                progress.cancel();
+                throw e;
+            }
+
+            if (manifest != null && !progress.isCancelled() && progress.getFailures().stream().noneMatch(failure -> failure.getPath().isEmpty())) {
+                //failed files are left out, so they are compared against the target again next time
+                Set<String> failedPaths = progress.getFailures().stream().map(TransferFailure::getPath).collect(Collectors.toSet());
+                SyncManifest.store(manifestFile, failedPaths, manifest);
+            }
+            return new SyncResult(progress, merger.unchangedFiles.get(), merger.deletedFiles.get());
+        } finally {
+            if (manifestFile != null) {
+                Files.deleteIfExists(manifestFile);
+            }
+        }
+    }
+
+    private boolean isChanged(ResourceAttributes source, ResourceAttributes target, boolean recorded) {
+        if (!source.hasSize() || !target.hasSize() || source.getSize() != target.getSize()) {
+            return true;
+        }
+        if (compareChecksums && source.getChecksum() != null && target.getChecksum() != null
+                && source.getChecksumAlgorithm().equalsIgnoreCase(target.getChecksumAlgorithm())) {
+            return !Arrays.equals(source.getChecksum(), target.getChecksum());
+        }
+        Instant sourceModified = source.getTimeLastModified();
+        Instant targetModified = target.getTimeLastModified();
+        if (sourceModified == null || targetModified == null) {
+            return true;
+        }
+        if (recorded) {
+            //the manifest holds the source time of the last run (in millis)
+            return sourceModified.toEpochMilli() != targetModified.toEpochMilli();
+        }
+        //targets not preserving times (e.g. S3) are written after the source was modified
+        return sourceModified.isAfter(targetModified.plus(timeTolerance));
+    }
+
+    private final class Merger implements Iterator<StorageResourceEntry> {
+        private final StorageResource source;
+        private final StorageResource target;
+        private final boolean useManifest;
+        private final Path manifestFile;
+        private final AtomicLong unchangedFiles = new AtomicLong();
+        private final AtomicLong deletedFiles = new AtomicLong();
+        private final List<String> pendingDeletes = new ArrayList<>();
+        private Stream<StorageResourceEntry> sourceStream;
+        private Stream<StorageResourceEntry> targetStream;
+        private Iterator<StorageResourceEntry> sourceIterator;
+        private Iterator<StorageResourceEntry> targetIterator;
+        private SyncManifest.Writer manifestWriter;
+        private StorageResourceEntry sourceEntry;
+        private StorageResourceEntry targetEntry;
+        private StorageResourceEntry next;
+
+        private Merger(StorageResource source, StorageResource target, boolean useManifest, Path manifestFile) {
+            this.source = source;
+            this.target = target;
+            this.useManifest = useManifest;
+            this.manifestFile = manifestFile;
+        }
+
+        private Stream<StorageResourceEntry> start() throws IOException {
+            try {
+                sourceStream = ResourceWalker.walkSorted(source, Integer.MAX_VALUE).filter(entry -> entry.getAttributes().isFile());
+                targetStream = useManifest
+                        ? SyncManifest.read(manifest)
+                        : ResourceWalker.walkSorted(target, Integer.MAX_VALUE).filter(entry -> entry.getAttributes().isFile());
+                sourceIterator = sourceStream.iterator();
+                targetIterator = targetStream.iterator();
+                if (manifestFile != null) {
+                    manifestWriter = new SyncManifest.Writer(manifestFile);
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(this::close);
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    if (sourceEntry == null && sourceIterator.hasNext()) {
+                        sourceEntry = sourceIterator.next();
+                    }
+                    if (targetEntry == null && targetIterator.hasNext()) {
+                        targetEntry = targetIterator.next();
+                    }
+                    if (sourceEntry == null && targetEntry == null) {
+                        return false;
+                    }
+
+                    int comparison = sourceEntry == null ? 1 : targetEntry == null ? -1 : sourceEntry.getName().compareTo(targetEntry.getName());
+                    if (comparison > 0) {
+                        if (deleteExtra) {
+                            delete(targetEntry.getName());
+                        }
+                        targetEntry = null;
+                        continue;
+                    }
+
+                    if (comparison < 0 || isChanged(sourceEntry.getAttributes(), targetEntry.getAttributes(), useManifest)) {
+                        next = sourceEntry;
+                    } else {
+                        unchangedFiles.incrementAndGet();
+                    }
+                    if (manifestWriter != null) {
+                        manifestWriter.write(sourceEntry.getName(), sourceEntry.getAttributes());
+                    }
+                    sourceEntry = null;
+                    if (comparison == 0) {
+                        targetEntry = null;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public StorageResourceEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StorageResourceEntry result = next;
+            next = null;
+            return result;
+        }
+
+        private void delete(String path) throws IOException {
+            pendingDeletes.add(path);
+            if (pendingDeletes.size() >= DELETE_BATCH_SIZE) {
+                flushDeletes();
+            }
+        }
+
+        private void flushDeletes() throws IOException {
+            if (!pendingDeletes.isEmpty()) {
+                deletedFiles.addAndGet(target.deleteAll(pendingDeletes));
+                pendingDeletes.clear();
+            }
+        }
+
+        private void close() {
+            try {
+                flushDeletes();
+                if (manifestWriter != null) {
+                    manifestWriter.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (sourceStream != null) {
+                    sourceStream.close();
+                }
+                if (targetStream != null) {
+                    targetStream.close();
+                }
+            }
+        }
+    }
+
+    public static final class Builder {
+        private StorageTransfer transfer;
+        private boolean deleteExtra;
+        private boolean compareChecksums = true;
+        private Duration timeTolerance = DEFAULT_TIME_TOLERANCE;
+        private StorageResource manifest;
+
+        private Builder() { }
+
+        /**
+         * Transfer used for new and changed files, by default one with default settings preserving last modified times.
+         */
+        public Builder transfer(StorageTransfer transfer) {
+            this.transfer = transfer;
+            return this;
+        }
+
+        /**
+         * Deletes target files that do not exist in the source.
+         */
+        public Builder deleteExtra(boolean deleteExtra) {
+            this.deleteExtra = deleteExtra;
+            return this;
+        }
+
+        /**
+         * Compares checksums instead of times when both sides expose one of the same algorithm (enabled by default).
+         */
+        public Builder compareChecksums(boolean compareChecksums) {
+            this.compareChecksums = compareChecksums;
+            return this;
+        }
+
+        /**
+         * How much older the target modification time may be (e.g. coarse storage time precision), 1 second by default.
+         */
+        public Builder timeTolerance(Duration timeTolerance) {
+            this.timeTolerance = timeTolerance;
+            return this;
+        }
+
+        /**
+         * Resource (of any storage) keeping the state of the last sync, written after each successful run.
+         */
+        public Builder manifest(StorageResource manifest) {
+            this.manifest = manifest;
+            return this;
+        }
+
+        public StorageSync build() {
+            return new StorageSync(this);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.progralink.anystorage.api.transfer;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
+import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.io.CountingInputStream;
+import com.progralink.anystorage.api.options.WriteOption;
+import com.progralink.jinout.streams.input.LengthAwareInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Copies all files of a subtree to another resource, possibly of a different session/storage.
+ * The source is listed on its own thread into a bounded queue, while a pool of workers transfers the files,
+ * so listing, reading and writing overlap. Failed files are retried with exponential backoff.
+ * Files of the same session are copied with {@link StorageResource#copyTo} (server-side when supported).
+ * <pre>
+ * TransferProgress progress = StorageTransfer.builder().threads(32).build().start(smbSession, s3Session);
+ * while (!progress.await(10, TimeUnit.SECONDS)) {
+ *     System.out.println(progress);
+ * }
+ * </pre>
+ */
+public final class StorageTransfer {
+    public static final int DEFAULT_THREADS = 8;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+    public static final long DEFAULT_LARGE_FILE_THRESHOLD = 64L * 1024 * 1024;
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    private final int threads;
+    private final int queueCapacity;
+    private final int maxRetries;
+    private final Duration retryDelay;
+    private final long largeFileThreshold;
+    private final int largeFileConcurrency;
+    private final boolean preserveLastModifiedTime;
+    private final WriteOption<?>[] writeOptions;
+
+    private StorageTransfer(Builder builder) {
+        this.threads = builder.threads;
+        this.queueCapacity = builder.queueCapacity > 0 ? builder.queueCapacity : builder.threads * 100;
+        this.maxRetries = builder.maxRetries;
+        this.retryDelay = builder.retryDelay;
+        this.largeFileThreshold = builder.largeFileThreshold;
+        this.largeFileConcurrency = builder.largeFileConcurrency > 0 ? builder.largeFileConcurrency : Math.max(1, builder.threads / 2);
+        this.preserveLastModifiedTime = builder.preserveLastModifiedTime;
+        this.writeOptions = builder.writeOptions;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public TransferProgress start(StorageSession source, StorageSession target) {
+        return start(source.getRootResource(), target.getRootResource());
+    }
+
+    /**
+     * Starts transferring the descendants of source to the same relative paths under target, returns immediately.
+     */
+    public TransferProgress start(StorageResource source, StorageResource target) {
+        return start(() -> source.walk(Integer.MAX_VALUE, entry -> entry.getAttributes().isFile()), target);
+    }
+
+    /**
+     * Transfers the listed files (named by their paths relative to target), the listing is consumed on the lister thread.
+     */
+    TransferProgress start(Lister lister, StorageResource target) {
+        Job job = new Job(lister, target);
+        job.start();
+        return job.progress;
+    }
+
+    /**
+     * Transfers and waits for completion, failed files are reported by {@link TransferProgress#getFailures()}.
+     */
+    public TransferProgress run(StorageResource source, StorageResource target) throws InterruptedException {
+        TransferProgress progress = start(source, target);
+        try {
+            progress.await();
+        } catch (InterruptedException e) {
+            progress.cancel();
+            throw e;
+        }
+        return progress;
+    }
+
+    interface Lister {
+        Stream<StorageResourceEntry> list() throws IOException;
+    }
+
+    private static final class Item {
+        private final String path;
+        private final StorageResource resource;
+        private final long size;
+        private final Instant lastModified;
+
+        private Item(String path, StorageResource resource, long size, Instant lastModified) {
+            this.path = path;
+            this.resource = resource;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final class Job {
+        private final Lister lister;
+        private final StorageResource target;
+        private final TransferProgress progress = new TransferProgress();
+        private final BlockingQueue<Item> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Semaphore largeFiles = new Semaphore(largeFileConcurrency);
+        private final AtomicInteger runningWorkers = new AtomicInteger(threads);
+
+        private Job(Lister lister, StorageResource target) {
+            this.lister = lister;
+            this.target = target;
+        }
+
+        private void start() {
+            newThread(this::list, "anystorage-transfer-list").start();
+            for (int i = 0; i < threads; i++) {
+                newThread(this::work, "anystorage-transfer-" + i).start();
+            }
+        }
+
+        private Thread newThread(Runnable runnable, String name) {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        private void list() {
+            try (Stream<StorageResourceEntry> entries = lister.list()) {
+                Iterator<StorageResourceEntry> iterator = entries.iterator();
+                while (!progress.isCancelled() && iterator.hasNext()) {
+                    StorageResourceEntry entry = iterator.next();
+                    long size = entry.getAttributes().getSize();
+                    progress.listed(size);
+                    //blocks while workers are behind, so a huge tree is never held in memory
+                    queue.put(new Item(entry.getName(), entry.getResource(), size, entry.getAttributes().getTimeLastModified()));
+                }
+            } catch (IOException | RuntimeException e) {
+                progress.failed(new TransferFailure("", 1, toIOException(e)), 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                progress.cancel();
+            } finally {
+                progress.listingComplete();
+            }
+        }
+
+        private void work() {
+            try {
+                while (true) {
+                    Item item = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (item == null) {
+                        if ((progress.isListingComplete() || progress.isCancelled()) && queue.isEmpty()) {
+                            break;
+                        }
+                    } else if (!progress.isCancelled()) {
+                        transfer(item);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                progress.cancel();
+            } finally {
+                if (runningWorkers.decrementAndGet() == 0) {
+                    progress.done();
+                }
+            }
+        }
+
+        private void transfer(Item item) throws InterruptedException {
+            boolean large = item.size >= largeFileThreshold;
+            if (large) {
+                largeFiles.acquire();
+            }
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    AtomicLong attemptBytes = new AtomicLong();
+                    try {
+                        copy(item, attemptBytes);
+                        progress.fileTransferred();
+                        return;
+                    } catch (IOException | RuntimeException e) {
+                        IOException exception = toIOException(e);
+                        progress.bytesTransferred(-attemptBytes.get());
+                        if (attempt > maxRetries || progress.isCancelled()
+                                || exception instanceof NotFoundException || exception instanceof AlreadyExistsException) {
+                            progress.failed(new TransferFailure(item.path, attempt, exception), item.size);
+                            return;
+                        }
+                        progress.retried();
+                        Thread.sleep(retryDelay.toMillis() << Math.min(attempt - 1, MAX_BACKOFF_SHIFT));
+                    }
+                }
+            } finally {
+                if (large) {
+                    largeFiles.release();
+                }
+            }
+        }
+
+        private IOException toIOException(Exception e) {
+            if (e instanceof IOException) {
+                return (IOException) e;
+            }
+            if (e instanceof UncheckedIOException) {
+                return ((UncheckedIOException) e).getCause();
+            }
+            //unchecked client failures (e.g. a connection reset reported by an SDK) are retried like I/O errors
+            return new IOException(e);
+        }
+
+        private void copy(Item item, AtomicLong attemptBytes) throws IOException {
+            StorageResource targetResource = target.resolve(item.path);
+            WriteOption<?>[] writeOptions = StorageTransfer.this.writeOptions;
+            if (preserveLastModifiedTime && item.lastModified != null) {
+                writeOptions = Arrays.copyOf(writeOptions, writeOptions.length + 1);
+                writeOptions[writeOptions.length - 1] = WriteOption.ofLastModifiedTime(item.lastModified);
+            }
+            if (item.resource.getSession() == targetResource.getSession()) {
+                item.resource.copyTo(targetResource, writeOptions);
+                progress.bytesTransferred(Math.max(0, item.size));
+                return;
+            }
+
+            try (InputStream inputStream = item.resource.openRead()) {
+                InputStream countingStream = new CountingInputStream(inputStream, bytes -> {
+                    attemptBytes.addAndGet(bytes);
+                    progress.bytesTransferred(bytes);
+                });
+                targetResource.write(item.size >= 0 ? new LengthAwareInputStream(countingStream, item.size) : countingStream, writeOptions);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private int threads = DEFAULT_THREADS;
+        private int queueCapacity;
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+        private Duration retryDelay = DEFAULT_RETRY_DELAY;
+        private long largeFileThreshold = DEFAULT_LARGE_FILE_THRESHOLD;
+        private int largeFileConcurrency;
+        private boolean preserveLastModifiedTime;
+        private WriteOption<?>[] writeOptions = new WriteOption<?>[0];
+
+        private Builder() { }
+
+        /**
+         * Number of files transferred at the same time.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("At least one thread required");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Number of listed files waiting for a worker, 100 per thread by default.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Delay before the first retry of a file, doubled with each next one.
+         */
+        public Builder retryDelay(Duration retryDelay) {
+            this.retryDelay = retryDelay;
+            return this;
+        }
+
+        /**
+         * Limits how many files of at least the given size are transferred at once (half of the threads by default),
+         * so that a few huge files do not hold all the workers while the small ones wait.
+         */
+        public Builder largeFiles(long threshold, int concurrency) {
+            this.largeFileThreshold = threshold;
+            this.largeFileConcurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Passes the source last modified time to the target write, for storages supporting it.
+         */
+        public Builder preserveLastModifiedTime(boolean preserveLastModifiedTime) {
+            this.preserveLastModifiedTime = preserveLastModifiedTime;
+            return this;
+        }
+
+        public Builder writeOptions(WriteOption<?>... writeOptions) {
+            this.writeOptions = writeOptions.clone();
+            return this;
+        }
+
+        public StorageTransfer build() {
+            return new StorageTransfer(this);
+        }
+    }
+}
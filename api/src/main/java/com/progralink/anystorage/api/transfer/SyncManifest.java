@@ -0,0 +1,162 @@
+package com.progralink.anystorage.api.transfer;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Gzipped text file with one line per synchronized file, in the sorted order of {@link com.progralink.anystorage.api.ResourceWalker#walkSorted}:
+ * {@code path TAB size TAB lastModifiedMillis TAB checksumAlgorithm TAB checksumHex}, missing values written as {@code -}.
+ */
+final class SyncManifest {
+    private static final String HEADER = "anystorage-sync-manifest 1";
+    private static final String NONE = "-";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SyncManifest() {
+    }
+
+    static Stream<StorageResourceEntry> read(StorageResource manifest) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(manifest.openRead()), UTF_8));
+        try {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new IOException("Not a sync manifest: " + manifest.getLocalPath());
+            }
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        return reader.lines()
+                .map(SyncManifest::parse)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Copies the manifest file to the target resource, leaving out the given paths.
+     */
+    static void store(Path file, Set<String> excludedPaths, StorageResource manifest) throws IOException {
+        if (excludedPaths.isEmpty()) {
+            manifest.write(file);
+            return;
+        }
+        Path filtered = Files.createTempFile("anystorage-sync", ".manifest.gz");
+        try {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), UTF_8));
+                 Writer writer = new Writer(filtered)) {
+                reader.readLine();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!excludedPaths.contains(unescape(line.substring(0, line.indexOf('\t'))))) {
+                        writer.writeLine(line);
+                    }
+                }
+            }
+            manifest.write(filtered);
+        } finally {
+            Files.deleteIfExists(filtered);
+        }
+    }
+
+    private static StorageResourceEntry parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 5) {
+            throw new UncheckedIOException(new IOException("Invalid sync manifest line: " + line));
+        }
+        ResourceAttributes.Builder attributes = ResourceAttributes.builder()
+                .exists(true)
+                .file(true)
+                .size(Long.parseLong(fields[1]));
+        if (!NONE.equals(fields[2])) {
+            attributes.timeLastModified(Instant.ofEpochMilli(Long.parseLong(fields[2])));
+        }
+        if (!NONE.equals(fields[3])) {
+            attributes.checksum(fields[3], fromHex(fields[4]));
+        }
+        return new StorageResourceEntry(unescape(fields[0]), null, attributes.build());
+    }
+
+    static final class Writer implements Closeable {
+        private final BufferedWriter writer;
+
+        Writer(Path file) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), UTF_8));
+            writer.write(HEADER);
+            writer.write('\n');
+        }
+
+        void write(String path, ResourceAttributes attributes) throws IOException {
+            Instant lastModified = attributes.getTimeLastModified();
+            byte[] checksum = attributes.getChecksum();
+            writeLine(escape(path)
+                    + '\t' + attributes.getSize()
+                    + '\t' + (lastModified != null ? String.valueOf(lastModified.toEpochMilli()) : NONE)
+                    + '\t' + (checksum != null ? attributes.getChecksumAlgorithm() : NONE)
+                    + '\t' + (checksum != null ? toHex(checksum) : NONE));
+        }
+
+        private void writeLine(String line) throws IOException {
+            writer.write(line);
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static String escape(String path) {
+        return path.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') == -1) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,42 @@
+package com.progralink.anystorage.api.transfer;
+
+public final class SyncResult {
+    private final TransferProgress transfer;
+    private final long unchangedFiles;
+    private final long deletedFiles;
+
+    SyncResult(TransferProgress transfer, long unchangedFiles, long deletedFiles) {
+        this.transfer = transfer;
+        this.unchangedFiles = unchangedFiles;
+        this.deletedFiles = deletedFiles;
+    }
+
+    /**
+     * Transfer of the new and changed files.
+     */
+    public TransferProgress getTransfer() {
+        return transfer;
+    }
+
+    public long getCopiedFiles() {
+        return transfer.getTransferredFiles();
+    }
+
+    public long getUnchangedFiles() {
+        return unchangedFiles;
+    }
+
+    public long getDeletedFiles() {
+        return deletedFiles;
+    }
+
+    public boolean isSuccessful() {
+        return transfer.getFailures().isEmpty() && !transfer.isCancelled();
+    }
+
+    @Override
+    public String toString() {
+        return getCopiedFiles() + " copied, " + unchangedFiles + " unchanged, " + deletedFiles + " deleted, "
+                + transfer.getFailedFiles() + " failed";
+    }
+}
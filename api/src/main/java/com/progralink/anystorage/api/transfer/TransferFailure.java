@@ -0,0 +1,35 @@
+package com.progralink.anystorage.api.transfer;
+
+import java.io.IOException;
+
+public final class TransferFailure {
+    private final String path;
+    private final int attempts;
+    private final IOException exception;
+
+    TransferFailure(String path, int attempts, IOException exception) {
+        this.path = path;
+        this.attempts = attempts;
+        this.exception = exception;
+    }
+
+    /**
+     * Path relative to the transferred resource, empty when the listing itself failed.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public IOException getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + attempts + " attempts): " + exception;
+    }
+}
@@ -0,0 +1,182 @@
+package com.progralink.anystorage.api.transfer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live state of a running {@link StorageTransfer}, safe to poll from any thread.
+ * Totals grow while the source is still being listed, so rates and ETA refer to what has been listed so far.
+ */
+public final class TransferProgress {
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong listedFiles = new AtomicLong();
+    private final AtomicLong listedBytes = new AtomicLong();
+    private final AtomicLong transferredFiles = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final AtomicLong failedFiles = new AtomicLong();
+    private final AtomicLong failedBytes = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final List<TransferFailure> failures = new ArrayList<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile boolean listingComplete;
+    private volatile boolean cancelled;
+    private volatile long endNanos;
+
+    TransferProgress() { }
+
+    public long getListedFiles() {
+        return listedFiles.get();
+    }
+
+    public long getListedBytes() {
+        return listedBytes.get();
+    }
+
+    public boolean isListingComplete() {
+        return listingComplete;
+    }
+
+    public long getTransferredFiles() {
+        return transferredFiles.get();
+    }
+
+    /**
+     * Bytes transferred so far, including the partial content of files still in transfer.
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    public long getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public List<TransferFailure> getFailures() {
+        synchronized (failures) {
+            return new ArrayList<>(failures);
+        }
+    }
+
+    public long getRemainingFiles() {
+        return Math.max(0, listedFiles.get() - transferredFiles.get() - failedFiles.get());
+    }
+
+    public long getRemainingBytes() {
+        return Math.max(0, listedBytes.get() - transferredBytes.get() - failedBytes.get());
+    }
+
+    public Duration getElapsed() {
+        long end = isDone() ? endNanos : System.nanoTime();
+        return Duration.ofNanos(end - startNanos);
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(transferredFiles.get());
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(transferredBytes.get());
+    }
+
+    /**
+     * Remaining time at the current byte rate, null while nothing has been transferred yet.
+     */
+    public Duration getEstimatedTimeRemaining() {
+        if (isDone()) {
+            return Duration.ZERO;
+        }
+        double bytesPerSecond = getBytesPerSecond();
+        if (bytesPerSecond <= 0) {
+            return null;
+        }
+        return Duration.ofMillis((long) (getRemainingBytes() / bytesPerSecond * 1000));
+    }
+
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stops listing and picking up new files, files already in transfer are finished.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        Duration eta = getEstimatedTimeRemaining();
+        return String.format(Locale.ROOT, "%d/%d%s files, %.1f/%.1f MB, %.1f files/s, %.2f MB/s, %d failed, ETA %s",
+                transferredFiles.get(), listedFiles.get(), listingComplete ? "" : "+",
+                transferredBytes.get() / 1e6, listedBytes.get() / 1e6,
+                getFilesPerSecond(), getBytesPerSecond() / 1e6,
+                failedFiles.get(),
+                eta != null ? eta.getSeconds() + "s" : "unknown");
+    }
+
+    private double perSecond(long value) {
+        long nanos = getElapsed().toNanos();
+        return nanos > 0 ? value * 1e9 / nanos : 0;
+    }
+
+    void listed(long size) {
+        listedFiles.incrementAndGet();
+        if (size > 0) {
+            listedBytes.addAndGet(size);
+        }
+    }
+
+    void listingComplete() {
+        listingComplete = true;
+    }
+
+    void bytesTransferred(long bytes) {
+        transferredBytes.addAndGet(bytes);
+    }
+
+    void fileTransferred() {
+        transferredFiles.incrementAndGet();
+    }
+
+    void retried() {
+        retries.incrementAndGet();
+    }
+
+    void failed(TransferFailure failure, long size) {
+        if (!failure.getPath().isEmpty()) {
+            failedFiles.incrementAndGet();
+            if (size > 0) {
+                failedBytes.addAndGet(size);
+            }
+        }
+        synchronized (failures) {
+            failures.add(failure);
+        }
+    }
+
+    void done() {
+        endNanos = System.nanoTime();
+        done.countDown();
+    }
+}
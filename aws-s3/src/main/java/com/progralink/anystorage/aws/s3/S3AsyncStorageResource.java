@@ -0,0 +1,114 @@
+package com.progralink.anystorage.aws.s3;
+
+import com.progralink.anystorage.api.async.AsyncStorageResource;
+import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.ReadOption;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+public class S3AsyncStorageResource extends AsyncStorageResource {
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    S3AsyncStorageResource(S3StorageResource resource, Executor executor) {
+        super(resource, executor);
+    }
+
+    @Override
+    public S3StorageResource getResource() {
+        return (S3StorageResource) super.getResource();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> readFully(ReadOption<?>... options) {
+        Options allOptions = Options.merge(getResource().getSession().getOptions(), options);
+        if (ReadOption.OLDEST_VERSION.isEnabled(allOptions) || allOptions.get(ReadOption.Name.RANGE) != null) {
+            //version lookup and empty/unsatisfiable ranges are handled by the blocking implementation
+            return super.readFully(options);
+        }
+
+        GetObjectRequest request;
+        try {
+            request = getResource().prepareGetObjectRequest(allOptions);
+        } catch (NotFoundException e) {
+            CompletableFuture<byte[]> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return getResource().getSession().getAsyncClient()
+                .getObject(request, AsyncResponseTransformer.<GetObjectResponse>toBytes())
+                .handle((ResponseBytes<GetObjectResponse> responseBytes, Throwable error) -> {
+                    if (error != null) {
+                        throw translate(error);
+                    }
+                    return responseBytes.asByteArrayUnsafe();
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists() {
+        return headObject().handle((HeadObjectResponse head, Throwable error) -> {
+            if (error != null) {
+                if (isNotFound(error)) {
+                    return false;
+                }
+                throw translate(error);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getSize(ReadOption<?>... options) {
+        if (options.length > 0) {
+            return super.getSize(options);
+        }
+        return headObject().handle((HeadObjectResponse head, Throwable error) -> {
+            if (error != null) {
+                throw translate(error);
+            }
+            if (head.contentLength() == null) {
+                throw new CompletionException(new NotFoundException());
+            }
+            return head.contentLength();
+        });
+    }
+
+    protected CompletableFuture<HeadObjectResponse> headObject() {
+        S3StorageResource resource = getResource();
+        return resource.getSession().getAsyncClient().headObject(resource.prepareHeadObjectRequest());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof NoSuchKeyException ||
+                (cause instanceof S3Exception && ((S3Exception) cause).statusCode() == HTTP_STATUS_NOT_FOUND);
+    }
+
+    private CompletionException translate(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (isNotFound(cause)) {
+            return new CompletionException(new NotFoundException(cause.getMessage(), cause));
+        }
+        if (cause instanceof Exception) {
+            return new CompletionException(getResource().getSession().translateException((Exception) cause));
+        }
+        return new CompletionException(cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.progralink.anystorage.aws.s3;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.async.AsyncStorageResource;
+import com.progralink.anystorage.api.async.AsyncStorageSession;
+
+import java.util.concurrent.Executor;
+
+public class S3AsyncStorageSession extends AsyncStorageSession {
+    S3AsyncStorageSession(S3StorageSession session, Executor executor) {
+        super(session, executor);
+    }
+
+    @Override
+    public S3StorageSession getSession() {
+        return (S3StorageSession) super.getSession();
+    }
+
+    @Override
+    public AsyncStorageResource wrap(StorageResource resource) {
+        if (resource instanceof S3StorageResource && resource.getSession() == getSession()) {
+            return new S3AsyncStorageResource((S3StorageResource) resource, getExecutor());
+        }
+        return super.wrap(resource);
+    }
+}
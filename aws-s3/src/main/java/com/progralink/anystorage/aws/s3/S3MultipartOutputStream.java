@@ -0,0 +1,263 @@
+package com.progralink.anystorage.aws.s3;
+
+import com.progralink.anystorage.api.async.AsyncStorageSession;
+import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.WriteOption;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streams content of unknown length as a multipart upload: written bytes fill part buffers which are uploaded
+ * in parallel while the next ones are being filled. At most concurrency + 1 buffers exist, writing blocks
+ * until a buffer is free again. The upload is completed on close and aborted when anything fails,
+ * content smaller than a single part is sent with a single PUT.
+ */
+class S3MultipartOutputStream extends OutputStream {
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    static final long DEFAULT_PART_SIZE = 8L * 1024 * 1024;
+    static final int DEFAULT_UPLOAD_CONCURRENCY = 4;
+    private static final long MAX_PART_SIZE = 512L * 1024 * 1024;
+    private static final int MAX_PART_COUNT = 10000;
+
+    private final S3StorageResource resource;
+    private final Options options;
+    private final int partSize;
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final List<CompletableFuture<CompletedPart>> futures = new ArrayList<>();
+    private byte[] buffer;
+    private int bufferLength;
+    private int unallocatedBuffers;
+    private String uploadId;
+    private volatile Exception failure;
+    private boolean closed;
+
+    S3MultipartOutputStream(S3StorageResource resource, Options options) {
+        this.resource = resource;
+        this.options = options;
+        Long partSize = options.getLong(S3WriteOption.Name.S3_PART_SIZE);
+        Long concurrency = options.getLong(S3WriteOption.Name.S3_UPLOAD_CONCURRENCY);
+        this.partSize = (int) Math.min(MAX_PART_SIZE, Math.max(MIN_PART_SIZE, partSize != null ? partSize : DEFAULT_PART_SIZE));
+        int maxBuffers = (int) Math.max(1, concurrency != null ? concurrency : DEFAULT_UPLOAD_CONCURRENCY) + 1;
+        this.freeBuffers = new ArrayBlockingQueue<>(maxBuffers);
+        this.unallocatedBuffers = maxBuffers;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureBuffer();
+        buffer[bufferLength++] = (byte) b;
+        if (bufferLength == partSize) {
+            uploadBuffer();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ensureBuffer();
+            int n = Math.min(len, partSize - bufferLength);
+            System.arraycopy(b, off, buffer, bufferLength, n);
+            bufferLength += n;
+            off += n;
+            len -= n;
+            if (bufferLength == partSize) {
+                uploadBuffer();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (uploadId == null) {
+                //everything fits in a single part
+                int length = buffer != null ? bufferLength : 0;
+                String versionId = resource.putObject(new ByteArrayInputStream(buffer != null ? buffer : new byte[0], 0, length), length, options);
+                ensureOldestVersion(versionId);
+                return;
+            }
+            if (bufferLength > 0) {
+                uploadBuffer();
+            }
+            List<CompletedPart> parts = new ArrayList<>(futures.size());
+            for (CompletableFuture<CompletedPart> future : futures) {
+                try {
+                    parts.add(future.join());
+                } catch (CompletionException e) {
+                    throw resource.getSession().translateException(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+            }
+            parts.sort(Comparator.comparing(CompletedPart::partNumber));
+            String versionId = getClient().completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(resource.getSession().getBucket())
+                    .key(resource.getKey())
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build()
+            ).versionId();
+            uploadId = null;
+            ensureOldestVersion(versionId);
+        } catch (IOException e) {
+            abort(e);
+            throw e;
+        } catch (RuntimeException e) {
+            IOException exception = resource.getSession().translateException(e);
+            abort(exception);
+            throw exception;
+        } finally {
+            buffer = null;
+            freeBuffers.clear();
+        }
+    }
+
+    private void ensureOldestVersion(String versionId) throws IOException {
+        if (WriteOption.CREATE_NEW.isEnabled(options)) {
+            resource.ensureOldestVersion(versionId);
+        }
+    }
+
+    private void ensureBuffer() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        checkFailure();
+        if (buffer != null) {
+            return;
+        }
+        buffer = freeBuffers.poll();
+        if (buffer == null && unallocatedBuffers > 0) {
+            unallocatedBuffers--;
+            buffer = new byte[partSize];
+        }
+        while (buffer == null) {
+            //all buffers are being uploaded, waiting for the first one to finish
+            try {
+                buffer = freeBuffers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException exception = new InterruptedIOException();
+                abort(exception);
+                throw exception;
+            }
+        }
+        bufferLength = 0;
+    }
+
+    private void uploadBuffer() throws IOException {
+        try {
+            if (uploadId == null) {
+                uploadId = createMultipartUpload();
+            }
+            int partNumber = futures.size() + 1;
+            if (partNumber > MAX_PART_COUNT) {
+                throw new IOException("Exceeded " + MAX_PART_COUNT + " parts, use a larger part size (S3WriteOption.ofPartSize())");
+            }
+            UploadPartRequest request = UploadPartRequest.builder()
+                    .bucket(resource.getSession().getBucket())
+                    .key(resource.getKey())
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .contentLength((long) bufferLength)
+                    .build();
+            byte[] data = buffer;
+            int length = bufferLength;
+            buffer = null;
+            bufferLength = 0;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    if (failure != null) {
+                        throw new CompletionException(failure);
+                    }
+                    String eTag = getClient().uploadPart(request, RequestBody.fromInputStream(new ByteArrayInputStream(data, 0, length), length)).eTag();
+                    return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e instanceof CompletionException && e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                    throw e;
+                } finally {
+                    freeBuffers.offer(data);
+                }
+            }, AsyncStorageSession.getDefaultExecutor()));
+        } catch (IOException e) {
+            abort(e);
+            throw e;
+        } catch (RuntimeException e) {
+            IOException exception = resource.getSession().translateException(e);
+            abort(exception);
+            throw exception;
+        }
+    }
+
+    private String createMultipartUpload() {
+        CreateMultipartUploadRequest.Builder request = CreateMultipartUploadRequest.builder()
+                .bucket(resource.getSession().getBucket())
+                .key(resource.getKey())
+                .cacheControl(S3StorageResource.CACHE_CONTROL_NO_CACHE);
+        String storageClass = resource.getStorageClass(options);
+        if (storageClass != null) {
+            request.storageClass(storageClass);
+        }
+        return getClient().createMultipartUpload(request.build()).uploadId();
+    }
+
+    private void checkFailure() throws IOException {
+        Exception e = failure;
+        if (e != null) {
+            IOException exception = resource.getSession().translateException(e);
+            abort(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Discards the content written so far instead of completing it on close, e.g. when reading the source failed.
+     * Uploaded parts are removed so that they are not billed, a failure to do so is added as suppressed to the given exception.
+     */
+    void abort(Exception e) {
+        closed = true;
+        buffer = null;
+        if (uploadId == null) {
+            return;
+        }
+        for (CompletableFuture<CompletedPart> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException ignore) {
+                //already reported
+            }
+        }
+        try {
+            getClient().abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(resource.getSession().getBucket())
+                    .key(resource.getKey())
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException abortException) {
+            e.addSuppressed(abortException);
+        }
+        uploadId = null;
+    }
+
+    private S3Client getClient() {
+        return resource.getSession().getClient();
+    }
+}
@@ -7,6 +7,8 @@ import com.progralink.anystorage.api.options.Options;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
 
@@ -46,6 +48,7 @@ public class S3StorageConnector extends AbstractStorageConnector {
         }
 
         S3ClientBuilder builder = S3Client.builder();
+        S3AsyncClientBuilder asyncBuilder = S3AsyncClient.builder();
 
         String bucket = "storage";
         String rootPath = null;
@@ -70,6 +73,7 @@ public class S3StorageConnector extends AbstractStorageConnector {
                 ARN arn = ARN.parse(connectionString);
                 if (!arn.getRegion().isEmpty()) {
                     builder.useArnRegion(true);
+                    asyncBuilder.useArnRegion(true);
                 }
                 if (!arn.getResourceId().isEmpty()) {
                     bucket = arn.getResourceId();
@@ -115,13 +119,26 @@ public class S3StorageConnector extends AbstractStorageConnector {
                     credentials.getPassword()
             );
             builder.credentialsProvider(StaticCredentialsProvider.create(awsBasicCredentials));
+            asyncBuilder.credentialsProvider(StaticCredentialsProvider.create(awsBasicCredentials));
         }
 
         if (region != null && !region.isEmpty()) {
             builder.region(Region.of(region));
+            asyncBuilder.region(Region.of(region));
         }
 
+        String endpoint = options.getString("AWS_ENDPOINT_URL");
+        if (!endpoint.isEmpty()) {
+            //S3-compatible services (MinIO, S3Proxy...) usually expect path-style requests
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+            asyncBuilder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+
+        S3TracingInterceptor tracingInterceptor = new S3TracingInterceptor(name);
+        builder.overrideConfiguration(configuration -> configuration.addExecutionInterceptor(tracingInterceptor));
+        asyncBuilder.overrideConfiguration(configuration -> configuration.addExecutionInterceptor(tracingInterceptor));
+
         S3Client client = builder.build();
-        return new S3StorageSession(name, client, bucket, rootPath, options);
+        return new S3StorageSession(name, client, asyncBuilder::build, bucket, rootPath, options);
     }
 }
@@ -1,9 +1,15 @@
 package com.progralink.anystorage.aws.s3;
 
 import com.progralink.anystorage.api.AbstractStorageResource;
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.ResourceWalker;
 import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+import com.progralink.anystorage.api.async.AsyncStorageSession;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.exceptions.NotModifiedException;
+import com.progralink.anystorage.api.options.ByteRange;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
@@ -13,21 +19,39 @@ import com.progralink.jinout.streams.input.LengthAwareInputStream;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
-import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class S3StorageResource extends AbstractStorageResource {
-    private static final String CACHE_CONTROL_NO_CACHE = "no-cache";
+    static final String CACHE_CONTROL_NO_CACHE = "no-cache";
+    private static final int HTTP_STATUS_RANGE_NOT_SATISFIABLE = 416;
+    private static final int HTTP_STATUS_NOT_MODIFIED = 304;
+    private static final int READ_AHEAD_WINDOW_SIZE = 1024 * 1024;
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final int DELETE_CONCURRENCY = 8;
+    private static final int EXISTS_CONCURRENCY = 16;
+    private static final long MAX_COPY_OBJECT_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final long MAX_PUT_OBJECT_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final long COPY_PART_SIZE = 512L * 1024 * 1024;
+    private static final int MAX_PART_COUNT = 10000;
+    private static final int COPY_CONCURRENCY = 8;
 
 
     private String path;
@@ -49,9 +73,22 @@ public class S3StorageResource extends AbstractStorageResource {
 
     @Override
     protected InputStream openInputStream(Options options) throws Exception {
-        ResponseInputStream<GetObjectResponse> responseInputStream = getSession().getClient().getObject(
-                prepareGetObjectRequest(options)
-        );
+        ResponseInputStream<GetObjectResponse> responseInputStream;
+        try {
+            responseInputStream = getSession().getClient().getObject(
+                    prepareGetObjectRequest(options)
+            );
+        } catch (NoSuchKeyException e) {
+            throw new NotFoundException(e);
+        } catch (S3Exception e) {
+            if (e.statusCode() == HTTP_STATUS_RANGE_NOT_SATISFIABLE) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            if (e.statusCode() == HTTP_STATUS_NOT_MODIFIED) {
+                throw new NotModifiedException();
+            }
+            throw e;
+        }
         GetObjectResponse response = responseInputStream.response();
         InputStream inputStream = responseInputStream;
         if (response != null && response.contentLength() != null) {
@@ -60,27 +97,61 @@ public class S3StorageResource extends AbstractStorageResource {
         return inputStream;
     }
 
+    @Override
+    protected SeekableByteChannel openSeekableChannel(boolean writable, Options options) throws Exception {
+        return openRangedReadChannel(writable, options, READ_AHEAD_WINDOW_SIZE);
+    }
+
     @Override
     protected OutputStream openOutputStream(Options options) {
-        throw new UnsupportedOperationException();
+        return new S3MultipartOutputStream(this, options);
     }
 
     @Override
     protected long writeStream(InputStream source, Options options) throws Exception {
+        boolean overwrite = !WriteOption.CREATE_NEW.isEnabled(options);
+        if (!overwrite && exists()) {
+            throw new AlreadyExistsException();
+        }
+
+        Long length = options.getLong(WriteOption.Name.CONTENT_LENGTH);
+        if (length == null) {
+            length = IOStreams.getRemainingByteLength(source);
+        }
+        if (length == null || length > MAX_PUT_OBJECT_SIZE) {
+            //streamed as a multipart upload, the content does not have to be known upfront
+            S3MultipartOutputStream outputStream = new S3MultipartOutputStream(this, options);
+            try {
+                long size = IOStreams.transfer(source, outputStream);
+                outputStream.close();
+                return size;
+            } catch (Exception e) {
+                //a partially read source must not be completed as the new content
+                outputStream.abort(e);
+                throw e;
+            }
+        }
+
+        String versionId = putObject(
+                new BufferedInputStream(source), length, options  //without wrapping with BufferedInputStream it was hanging very often!
+        );
+
+        if (!overwrite) {
+            ensureOldestVersion(versionId);
+        }
+        return length;
+    }
+
+    String putObject(InputStream source, long length, Options options) {
         PutObjectRequest.Builder requestBuilder = PutObjectRequest.builder()
                 .bucket(getSession().getBucket())
                 .key(path)
                 .cacheControl(CACHE_CONTROL_NO_CACHE)
                 .expires(Instant.now());
 
-        String storageClass = options.getString(S3WriteOption.Name.S3_STORAGE_CLASS);
-        if (storageClass.isEmpty()) {
-            if (getSession().getDefaultStorageClass() != null) {
-                storageClass = getSession().getDefaultStorageClass().toString();
-            }
-            if (!storageClass.isEmpty()) {
-                requestBuilder.storageClass(storageClass);
-            }
+        String storageClass = getStorageClass(options);
+        if (storageClass != null) {
+            requestBuilder.storageClass(storageClass);
         }
 
         byte[] checksum = options.get(WriteOption.Name.CHECKSUM_SHA256);
@@ -90,46 +161,147 @@ public class S3StorageResource extends AbstractStorageResource {
             );
         }
 
-        boolean overwrite = !WriteOption.CREATE_NEW.isEnabled(options);
-        if (!overwrite && exists()) {
+        return getSession().getClient().putObject(requestBuilder.build(), RequestBody.fromInputStream(source, length)).versionId();
+    }
+
+    String getKey() {
+        return path;
+    }
+
+    protected String getStorageClass(Options options) {
+        String storageClass = options.getString(S3WriteOption.Name.S3_STORAGE_CLASS);
+        if (storageClass.isEmpty() && getSession().getDefaultStorageClass() != null) {
+            storageClass = getSession().getDefaultStorageClass().toString();
+        }
+        return storageClass.isEmpty() ? null : storageClass;
+    }
+
+    //emulation of CREATE_NEW: the written version has to be the oldest one, otherwise it is removed again
+    protected void ensureOldestVersion(String writtenVersionId) throws IOException {
+        ObjectVersion oldestVersion = getOldestVersion();
+        if (!Objects.equals(writtenVersionId, oldestVersion.versionId())) {
+            try {
+                getSession().getClient().deleteObject(
+                        DeleteObjectRequest.builder()
+                                .bucket(getSession().getBucket())
+                                .key(path)
+                                .versionId(writtenVersionId)
+                                .build()
+                );
+            } catch (S3Exception ignore) {
+                //ignoring because it might be locked
+                //and even if failed, when reading with ReadOption.OLDEST_VERSION option still will retrieve valid version
+            }
+
             throw new AlreadyExistsException();
         }
+    }
 
-        Long length = options.getLong(WriteOption.Name.CONTENT_LENGTH);
-        if (length == null) {
-            length = IOStreams.getRemainingByteLength(source);
+    @Override
+    protected boolean copyWithinSession(StorageResource target, Options options) throws Exception {
+        if (!(target instanceof S3StorageResource)) {
+            return false;
         }
-        if (length == null) {
-            throw new IllegalStateException("Unknown content length");
+        S3StorageResource s3Target = (S3StorageResource) target;
+        boolean overwrite = !WriteOption.CREATE_NEW.isEnabled(options);
+        if (!overwrite && s3Target.exists()) {
+            throw new AlreadyExistsException();
         }
 
-        RequestBody requestBody = RequestBody.fromInputStream(
-                new BufferedInputStream(source), length   //without wrapping with BufferedInputStream it was hanging very often!
-        );
+        HeadObjectResponse head;
+        try {
+            head = getObjectHead();
+        } catch (NoSuchKeyException e) {
+            throw new NotFoundException();
+        }
 
-        PutObjectResponse response = getSession().getClient().putObject(requestBuilder.build(), requestBody);
+        //copied by S3 itself, nothing is downloaded
+        String versionId;
+        if (head.contentLength() <= MAX_COPY_OBJECT_SIZE) {
+            CopyObjectRequest.Builder request = CopyObjectRequest.builder()
+                    .sourceBucket(getSession().getBucket())
+                    .sourceKey(path)
+                    .destinationBucket(getSession().getBucket())
+                    .destinationKey(s3Target.path);
+            String storageClass = getStorageClass(options);
+            if (storageClass != null) {
+                request.storageClass(storageClass);
+            }
+            versionId = getSession().getClient().copyObject(request.build()).versionId();
+        } else {
+            versionId = copyMultipart(s3Target, head.contentLength(), options);
+        }
 
         if (!overwrite) {
-            String putVersionId = response.versionId();
-            ObjectVersion oldestVersion = getOldestVersion();
-            if (!Objects.equals(putVersionId, oldestVersion.versionId())) {
-                try {
-                    getSession().getClient().deleteObject(
-                            DeleteObjectRequest.builder()
-                                    .bucket(getSession().getBucket())
-                                    .key(path)
-                                    .versionId(putVersionId)
-                                    .build()
-                    );
-                } catch (S3Exception ignore) {
-                    //ignoring because it might be locked
-                    //and even if failed, when reading with ReadOption.OLDEST_VERSION option still will retrieve valid version
+            s3Target.ensureOldestVersion(versionId);
+        }
+        return true;
+    }
+
+    private String copyMultipart(S3StorageResource target, long size, Options options) throws IOException {
+        S3Client client = getSession().getClient();
+        String bucket = getSession().getBucket();
+        CreateMultipartUploadRequest.Builder createRequest = CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(target.path)
+                .cacheControl(CACHE_CONTROL_NO_CACHE);
+        String storageClass = getStorageClass(options);
+        if (storageClass != null) {
+            createRequest.storageClass(storageClass);
+        }
+        String uploadId = client.createMultipartUpload(createRequest.build()).uploadId();
+
+        try {
+            long partSize = Math.max(COPY_PART_SIZE, (size + MAX_PART_COUNT - 1) / MAX_PART_COUNT);
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            List<CompletedPart> parts = new ArrayList<>(partCount);
+            for (int first = 1; first <= partCount; first += COPY_CONCURRENCY) {
+                List<CompletableFuture<CompletedPart>> futures = new ArrayList<>(COPY_CONCURRENCY);
+                for (int partNumber = first; partNumber < first + COPY_CONCURRENCY && partNumber <= partCount; partNumber++) {
+                    long offset = (partNumber - 1) * partSize;
+                    long lastPosition = Math.min(offset + partSize, size) - 1;
+                    UploadPartCopyRequest request = UploadPartCopyRequest.builder()
+                            .sourceBucket(bucket)
+                            .sourceKey(path)
+                            .destinationBucket(bucket)
+                            .destinationKey(target.path)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .copySourceRange("bytes=" + offset + "-" + lastPosition)
+                            .build();
+                    futures.add(CompletableFuture.supplyAsync(() -> CompletedPart.builder()
+                            .partNumber(request.partNumber())
+                            .eTag(client.uploadPartCopy(request).copyPartResult().eTag())
+                            .build(), AsyncStorageSession.getDefaultExecutor()));
                 }
+                for (CompletableFuture<CompletedPart> future : futures) {
+                    try {
+                        parts.add(future.join());
+                    } catch (CompletionException e) {
+                        throw translateException(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                    }
+                }
+            }
 
-                throw new AlreadyExistsException();
+            return client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(target.path)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build()
+            ).versionId();
+        } catch (IOException | RuntimeException e) {
+            try {
+                client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(target.path)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (S3Exception abortException) {
+                e.addSuppressed(abortException);
             }
+            throw e;
         }
-        return length;
     }
 
     @Override
@@ -149,6 +321,45 @@ public class S3StorageResource extends AbstractStorageResource {
         }
     }
 
+    @Override
+    public ResourceAttributes stat() throws IOException {
+        try {
+            HeadObjectResponse head = getObjectHead();
+            return ResourceAttributes.builder()
+                    .exists(true)
+                    .file(true)
+                    .size(head.contentLength() != null ? head.contentLength() : -1)
+                    .timeLastModified(head.lastModified())
+                    .versionId(head.versionId())
+                    .eTag(head.eTag())
+                    .checksum("SHA-256", decodeChecksum(head.checksumSHA256()))
+                    .build();
+        } catch (NoSuchKeyException e) {
+            if (hasChildren()) {
+                return ResourceAttributes.builder().directory(true).build();
+            }
+            return ResourceAttributes.NOT_FOUND;
+        } catch (S3Exception e) {
+            throw translateException(e);
+        }
+    }
+
+    @Override
+    public boolean hasChildren() throws IOException {
+        try {
+            ListObjectsV2Response response = getSession().getClient().listObjectsV2(
+                    ListObjectsV2Request.builder()
+                            .bucket(getSession().getBucket())
+                            .prefix(path.endsWith("/") ? path : path + "/")
+                            .maxKeys(1)
+                            .build()
+            );
+            return !response.contents().isEmpty();
+        } catch (S3Exception e) {
+            throw translateException(e);
+        }
+    }
+
     @Override
     public String getName() throws IOException {
         return path.substring(path.lastIndexOf('/') + 1);
@@ -180,10 +391,32 @@ public class S3StorageResource extends AbstractStorageResource {
 
     @Override
     public byte[] readFully(ReadOption<?>... options) throws IOException {
-        ResponseBytes<GetObjectResponse> responseBytes = getSession().getClient().getObjectAsBytes(
-                prepareGetObjectRequest(Options.merge(getSession().getOptions(), options))
-        );
-        return responseBytes.asByteArrayUnsafe();
+        Options allOptions = Options.merge(getSession().getOptions(), options);
+        ByteRange range = allOptions.get(ReadOption.Name.RANGE);
+        if (range != null && range.isEmpty()) {
+            return new byte[0];
+        }
+        try {
+            ResponseBytes<GetObjectResponse> responseBytes = getSession().getClient().getObjectAsBytes(
+                    prepareGetObjectRequest(allOptions)
+            );
+            return responseBytes.asByteArrayUnsafe();
+        } catch (NoSuchKeyException e) {
+            throw new NotFoundException(e);
+        } catch (S3Exception e) {
+            if (e.statusCode() == HTTP_STATUS_RANGE_NOT_SATISFIABLE) {
+                return new byte[0];
+            }
+            if (e.statusCode() == HTTP_STATUS_NOT_MODIFIED) {
+                throw new NotModifiedException();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    protected void checkModified(Options options) {
+        //sent as If-None-Match with the GET request
     }
 
     @Override
@@ -204,11 +437,23 @@ public class S3StorageResource extends AbstractStorageResource {
 
     @Override
     public Stream<StorageResource> children() throws IOException {
-        return childrenNames().stream().map(this::child);
+        return ResourceWalker.distinctNames(childrenWithAttributes()).map(StorageResourceEntry::getResource);
     }
 
     @Override
     public Collection<String> childrenNames() throws IOException {
+        try (Stream<StorageResourceEntry> entries = ResourceWalker.distinctNames(childrenWithAttributes())) {
+            return entries.map(StorageResourceEntry::getName).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        return childrenWithAttributes(null);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes(String continuationToken) throws IOException {
         final String prefix;
         if (!path.endsWith("/")) {
             prefix = path + "/";
@@ -216,29 +461,92 @@ public class S3StorageResource extends AbstractStorageResource {
             prefix = path;
         }
 
-        Set<String> names = new LinkedHashSet<>();
-        ListObjectsV2Request request = ListObjectsV2Request.builder()
-            .bucket(getSession().getBucket())
-            .prefix(prefix)
-            //.delimiter("/")   //TODO: now it is inefficient (when there are subdirectories), but with delimiter it skips (virtual) directories
-            .build();
-
-        ListObjectsV2Iterable response = getSession().getClient().listObjectsV2Paginator(request);
-        for (ListObjectsV2Response page : response) {
-            page.contents().forEach((S3Object object) -> {
-                String key = object.key();
-                String name;
-                int i = key.indexOf('/', prefix.length());
-                if (i != -1) {
-                    name = key.substring(prefix.length(), i);
-                } else {
-                    name = key.substring(prefix.length());
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(getSession().getBucket())
+                .prefix(prefix)
+                .delimiter("/");
+        String skippedPrefix = null;
+        if (continuationToken != null) {
+            request.startAfter(prefix + continuationToken);
+            if (continuationToken.endsWith("/")) {
+                //keys inside of the directory follow startAfter and would be rolled up into it again
+                skippedPrefix = prefix + continuationToken;
+            }
+        }
+
+        //pages are fetched as the stream is consumed
+        String resumedPrefix = skippedPrefix;
+        return StreamSupport.stream(getSession().getClient().listObjectsV2Paginator(request.build()).spliterator(), false)
+                .flatMap(page -> toEntries(page, prefix, resumedPrefix).stream());
+    }
+
+    private List<StorageResourceEntry> toEntries(ListObjectsV2Response page, String prefix, String skippedPrefix) {
+        //keys and common prefixes come in separate lists, merge them back into the listing order
+        List<StorageResourceEntry> entries = new ArrayList<>(page.contents().size() + page.commonPrefixes().size());
+        Iterator<S3Object> objects = page.contents().iterator();
+        Iterator<CommonPrefix> commonPrefixes = page.commonPrefixes().iterator();
+        S3Object object = objects.hasNext() ? objects.next() : null;
+        CommonPrefix commonPrefix = commonPrefixes.hasNext() ? commonPrefixes.next() : null;
+        while (object != null || commonPrefix != null) {
+            if (commonPrefix == null || (object != null && compareKeys(object.key(), commonPrefix.prefix()) < 0)) {
+                String name = object.key().substring(prefix.length());
+                if (!name.isEmpty()) {
+                    entries.add(new StorageResourceEntry(name, child(name), toResourceAttributes(object).build()));
+                }
+                object = objects.hasNext() ? objects.next() : null;
+            } else {
+                if (!commonPrefix.prefix().equals(skippedPrefix)) {
+                    String name = commonPrefix.prefix().substring(prefix.length(), commonPrefix.prefix().length() - 1);
+                    entries.add(new StorageResourceEntry(name, child(name), ResourceAttributes.builder().directory(true).build()));
                 }
-                names.add(name);
-            });
+                commonPrefix = commonPrefixes.hasNext() ? commonPrefixes.next() : null;
+            }
+        }
+        return entries;
+    }
+
+    //S3 sorts keys by their UTF-8 bytes, which is the code point order
+    private static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        final String prefix;
+        if (!path.endsWith("/")) {
+            prefix = path + "/";
+        } else {
+            prefix = path;
         }
 
-        return names;
+        //a single flat listing (no delimiter), pages are fetched as the stream is consumed
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(getSession().getBucket())
+                .prefix(prefix)
+                .build();
+        Stream<Map.Entry<String, ResourceAttributes>> files = StreamSupport.stream(getSession().getClient().listObjectsV2Paginator(request).contents().spliterator(), false)
+                .map(object -> new AbstractMap.SimpleImmutableEntry<>(object.key().substring(prefix.length()), toResourceAttributes(object).build()));
+        return ResourceWalker.fromSortedKeys(this, files, maxDepth).filter(filter);
+    }
+
+    static ResourceAttributes.Builder toResourceAttributes(S3Object object) {
+        return ResourceAttributes.builder()
+                .exists(true)
+                .file(true)
+                .size(object.size() != null ? object.size() : -1)
+                .timeLastModified(object.lastModified())
+                .eTag(object.eTag());
     }
 
     @Override
@@ -266,9 +574,15 @@ public class S3StorageResource extends AbstractStorageResource {
                 }
             }
         }
-        identifiers.add(ObjectIdentifier.builder().key(path).build());
-
         try {
+            //DeleteObjects reports a missing key as deleted (and adds a delete marker in versioned buckets)
+            boolean exists = keyExists();
+            if (exists) {
+                identifiers.add(ObjectIdentifier.builder().key(path).build());
+            }
+            if (identifiers.isEmpty()) {
+                return false;
+            }
             DeleteObjectsResponse resonse = getSession().getClient().deleteObjects(
                     DeleteObjectsRequest.builder()
                             .bucket(getSession().getBucket())
@@ -276,21 +590,213 @@ public class S3StorageResource extends AbstractStorageResource {
                             .bypassGovernanceRetention(true)
                             .build()
             );
-            return !resonse.deleted().isEmpty();
+            return exists || !resonse.deleted().isEmpty();
         } catch (S3Exception e) {
             throw translateException(e);
         }
     }
 
-    protected HeadObjectResponse getObjectHead() {
-        return getSession().getClient().headObject(
-                HeadObjectRequest.builder()
+    @Override
+    public boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
+        String prefix = path.endsWith("/") ? path : path + "/";
+        BatchDeleter deleter = new BatchDeleter();
+        try {
+            //one flat listing of the whole prefix, keys deleted in batches while listing continues
+            if (Arrays.asList(options).contains(DeleteOption.REMOVE_HISTORY)) {
+                ListObjectVersionsRequest request = ListObjectVersionsRequest.builder()
+                        .bucket(getSession().getBucket())
+                        .prefix(prefix)
+                        .build();
+                for (ListObjectVersionsResponse page : getSession().getClient().listObjectVersionsPaginator(request)) {
+                    for (ObjectVersion version : page.versions()) {
+                        deleter.add(ObjectIdentifier.builder().key(version.key()).versionId(version.versionId()).build());
+                    }
+                    for (DeleteMarkerEntry deleteMarkerEntry : page.deleteMarkers()) {
+                        deleter.add(ObjectIdentifier.builder().key(deleteMarkerEntry.key()).versionId(deleteMarkerEntry.versionId()).build());
+                    }
+                }
+            } else {
+                ListObjectsV2Request request = ListObjectsV2Request.builder()
+                        .bucket(getSession().getBucket())
+                        .prefix(prefix)
+                        .build();
+                for (S3Object object : getSession().getClient().listObjectsV2Paginator(request).contents()) {
+                    deleter.add(ObjectIdentifier.builder().key(object.key()).build());
+                }
+            }
+            boolean deleted = deleter.finish() > 0;
+            if (includeSelf) {
+                deleted |= delete(options);
+            }
+            return deleted;
+        } catch (S3Exception e) {
+            throw translateException(e);
+        } finally {
+            deleter.cancel();
+        }
+    }
+
+    @Override
+    public long deleteAll(Collection<String> subpaths, DeleteOption<?>... options) throws IOException {
+        if (Arrays.asList(options).contains(DeleteOption.REMOVE_HISTORY)) {
+            //versions have to be listed per key
+            return super.deleteAll(subpaths, options);
+        }
+        //DeleteObjects reports missing keys as deleted (and adds delete markers for them in versioned buckets),
+        //so only keys found by HEAD are sent and counted
+        BatchDeleter deleter = new BatchDeleter();
+        Deque<CompletableFuture<String>> lookups = new ArrayDeque<>();
+        try {
+            for (String subpath : subpaths) {
+                S3StorageResource resource = (S3StorageResource) resolve(subpath);
+                if (lookups.size() >= EXISTS_CONCURRENCY) {
+                    addIfExists(deleter, lookups.poll());
+                }
+                lookups.add(CompletableFuture.supplyAsync(() -> resource.keyExists() ? resource.path : null, AsyncStorageSession.getDefaultExecutor()));
+            }
+            while (!lookups.isEmpty()) {
+                addIfExists(deleter, lookups.poll());
+            }
+            return deleter.finish();
+        } finally {
+            for (CompletableFuture<String> lookup : lookups) {
+                lookup.cancel(false);
+            }
+            deleter.cancel();
+        }
+    }
+
+    private void addIfExists(BatchDeleter deleter, CompletableFuture<String> lookup) throws IOException {
+        String key;
+        try {
+            key = lookup.join();
+        } catch (CompletionException e) {
+            throw translateException(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+        if (key != null) {
+            deleter.add(ObjectIdentifier.builder().key(key).build());
+        }
+    }
+
+    private boolean keyExists() {
+        try {
+            getObjectHead();
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    private DeleteObjectsResponse deleteObjects(List<ObjectIdentifier> identifiers) {
+        return getSession().getClient().deleteObjects(
+                DeleteObjectsRequest.builder()
                         .bucket(getSession().getBucket())
-                        .key(path)
+                        .delete(Delete.builder().objects(identifiers).build())
+                        .bypassGovernanceRetention(true)
                         .build()
         );
     }
 
+    //packs keys into DeleteObjects requests of up to 1000 keys, a few requests in flight at once
+    private class BatchDeleter {
+        private final Deque<CompletableFuture<DeleteObjectsResponse>> inFlight = new ArrayDeque<>();
+        private List<ObjectIdentifier> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+        private long deleted;
+
+        void add(ObjectIdentifier identifier) throws IOException {
+            batch.add(identifier);
+            if (batch.size() == DELETE_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        long finish() throws IOException {
+            flush();
+            while (!inFlight.isEmpty()) {
+                await(inFlight.poll());
+            }
+            return deleted;
+        }
+
+        void cancel() {
+            for (CompletableFuture<DeleteObjectsResponse> future : inFlight) {
+                future.cancel(false);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ObjectIdentifier> identifiers = batch;
+            batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            if (inFlight.size() >= DELETE_CONCURRENCY) {
+                await(inFlight.poll());
+            }
+            inFlight.add(CompletableFuture.supplyAsync(() -> deleteObjects(identifiers), AsyncStorageSession.getDefaultExecutor()));
+        }
+
+        private void await(CompletableFuture<DeleteObjectsResponse> future) throws IOException {
+            DeleteObjectsResponse response;
+            try {
+                response = future.join();
+            } catch (CompletionException e) {
+                throw translateException(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            }
+            deleted += response.deleted().size();
+            if (!response.errors().isEmpty()) {
+                S3Error error = response.errors().get(0);
+                throw new IOException("Unable to delete " + response.errors().size() + " object(s), e.g. " + error.key() + ": " + error.code() + " " + error.message());
+            }
+        }
+    }
+
+    protected HeadObjectResponse getObjectHead() {
+        return getSession().getClient().headObject(prepareHeadObjectRequest());
+    }
+
+    protected HeadObjectRequest prepareHeadObjectRequest() {
+        //stored checksums are returned only when asked for
+        return HeadObjectRequest.builder()
+                .bucket(getSession().getBucket())
+                .key(path)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build();
+    }
+
+    @Override
+    public Optional<byte[]> getChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        if (!ReadOption.OLDEST_VERSION.isEnabled(Options.merge(getSession().getOptions(), options))) {
+            try {
+                HeadObjectResponse head = getObjectHead();
+                String checksum = null;
+                switch (algorithm.toUpperCase(Locale.ROOT)) {
+                    case "SHA-256": checksum = head.checksumSHA256(); break;
+                    case "SHA-1": checksum = head.checksumSHA1(); break;
+                    case "CRC32": checksum = head.checksumCRC32(); break;
+                    case "CRC32C": checksum = head.checksumCRC32C(); break;
+                }
+                byte[] decoded = decodeChecksum(checksum);
+                if (decoded != null) {
+                    return Optional.of(decoded);
+                }
+            } catch (NoSuchKeyException e) {
+                throw new NotFoundException();
+            } catch (S3Exception e) {
+                throw translateException(e);
+            }
+        }
+        return super.getChecksum(algorithm, options);
+    }
+
+    private static byte[] decodeChecksum(String checksum) {
+        //checksums of multipart uploads ("...-<parts>") are digests of part digests, not of the content
+        if (checksum == null || checksum.indexOf('-') != -1) {
+            return null;
+        }
+        return Base64.getDecoder().decode(checksum);
+    }
+
     protected GetObjectRequest prepareGetObjectRequest(Options options) throws NotFoundException {
         GetObjectRequest.Builder builder = GetObjectRequest.builder()
                 .bucket(getSession().getBucket())
@@ -304,6 +810,16 @@ public class S3StorageResource extends AbstractStorageResource {
             builder.versionId(versionId);
         }
 
+        ByteRange range = options.get(ReadOption.Name.RANGE);
+        if (range != null) {
+            builder.range("bytes=" + range);
+        }
+
+        String validator = options.get(ReadOption.Name.IF_NONE_MATCH);
+        if (validator != null) {
+            builder.ifNoneMatch(validator);
+        }
+
         return builder.build();
     }
 
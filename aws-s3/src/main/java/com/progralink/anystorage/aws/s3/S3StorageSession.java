@@ -1,19 +1,28 @@
 package com.progralink.anystorage.aws.s3;
 
 import com.progralink.anystorage.api.AbstractStorageSession;
+import com.progralink.anystorage.api.async.AsyncStorageSession;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.exceptions.NotModifiedException;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.StorageClass;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public class S3StorageSession extends AbstractStorageSession {
     private S3Client client;
+    private Supplier<S3AsyncClient> asyncClientFactory;
+    private volatile S3AsyncClient asyncClient;
     private String bucket;
     private String rootPath;
 
@@ -21,8 +30,13 @@ public class S3StorageSession extends AbstractStorageSession {
 
 
     S3StorageSession(String name, S3Client client, String bucket, String rootPath, Options options) {
+        this(name, client, null, bucket, rootPath, options);
+    }
+
+    S3StorageSession(String name, S3Client client, Supplier<S3AsyncClient> asyncClientFactory, String bucket, String rootPath, Options options) {
         super(name, options);
         this.client = client;
+        this.asyncClientFactory = asyncClientFactory;
         this.bucket = bucket;
 
         if (rootPath == null || rootPath.isEmpty()) {
@@ -40,6 +54,25 @@ public class S3StorageSession extends AbstractStorageSession {
         return client;
     }
 
+    public S3AsyncClient getAsyncClient() {
+        if (asyncClient == null && asyncClientFactory != null) {
+            synchronized (this) {
+                if (asyncClient == null) {
+                    asyncClient = asyncClientFactory.get();
+                }
+            }
+        }
+        return asyncClient;
+    }
+
+    @Override
+    public AsyncStorageSession async(Executor executor) {
+        if (asyncClientFactory == null) {
+            return super.async(executor);
+        }
+        return new S3AsyncStorageSession(this, executor);
+    }
+
     public String getBucket() {
         return bucket;
     }
@@ -55,7 +88,13 @@ public class S3StorageSession extends AbstractStorageSession {
 
     @Override
     public boolean isSupported(Option<?> option) {
-        return option == WriteOption.ATOMIC || option == WriteOption.APPEND || option == WriteOption.CREATE_NEW || option == DeleteOption.REMOVE_HISTORY || option instanceof S3WriteOption;
+        //no APPEND: objects can only be replaced as a whole
+        return option == WriteOption.ATOMIC ||
+                option == WriteOption.CREATE_NEW ||
+                option == DeleteOption.REMOVE_HISTORY ||
+                option instanceof S3WriteOption ||
+                ReadOption.Name.RANGE.equals(option.getName()) ||
+                ReadOption.Name.IF_NONE_MATCH.equals(option.getName());
     }
 
     public StorageClass getDefaultStorageClass() {
@@ -70,11 +109,17 @@ public class S3StorageSession extends AbstractStorageSession {
         if (e instanceof NoSuchKeyException) {
             return new NotFoundException(e);
         }
+        if (e instanceof S3Exception && ((S3Exception) e).statusCode() == 304) {
+            return new NotModifiedException(e);
+        }
         return new IOException(e);
     }
 
     @Override
     public void close() throws IOException {
         client.close();
+        if (asyncClient != null) {
+            asyncClient.close();
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.progralink.anystorage.aws.s3;
+
+import com.progralink.anystorage.api.trace.StorageSpan;
+import com.progralink.anystorage.api.trace.StorageTracing;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Traces every S3 request (including retries and multipart parts) as an {@code "S3 <operation>"} operation.
+ */
+class S3TracingInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<StorageSpan> SPAN = new ExecutionAttribute<>("AnyStorageSpan");
+
+    private final String sessionName;
+
+    S3TracingInterceptor(String sessionName) {
+        this.sessionName = sessionName;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        if (!StorageTracing.isEnabled()) {
+            return;
+        }
+        SdkRequest request = context.request();
+        String key = request.getValueForField("Key", String.class)
+                .orElseGet(() -> request.getValueForField("Prefix", String.class).orElse(""));
+        String operation = "S3 " + executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        executionAttributes.putAttribute(SPAN, StorageTracing.begin(operation, sessionName, "S3", key));
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        StorageSpan span = executionAttributes.getAttribute(SPAN);
+        if (span != null) {
+            //uploaded content length of PutObject/UploadPart, downloaded one of GetObject
+            Long bytes = context.request().getValueForField("ContentLength", Long.class)
+                    .orElseGet(() -> context.response().getValueForField("ContentLength", Long.class).orElse(0L));
+            span.addBytes(bytes);
+            span.end(null);
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        StorageSpan span = executionAttributes.getAttribute(SPAN);
+        if (span != null) {
+            span.end(context.exception());
+        }
+    }
+}
@@ -9,6 +9,8 @@ public class S3WriteOption<T> extends WriteOption<T> {
         }
 
         public static final String S3_STORAGE_CLASS = "AWS_S3_STORAGE_CLASS";
+        public static final String S3_PART_SIZE = "AWS_S3_PART_SIZE";
+        public static final String S3_UPLOAD_CONCURRENCY = "AWS_S3_UPLOAD_CONCURRENCY";
     }
 
     public S3WriteOption(String name, T value) {
@@ -19,4 +21,19 @@ public class S3WriteOption<T> extends WriteOption<T> {
     public static S3WriteOption<StorageClass> ofStorageClass(StorageClass storageClass) {
         return new S3WriteOption<>(Name.S3_STORAGE_CLASS, storageClass);
     }
+
+    /**
+     * Size of the parts of streamed multipart uploads (at least 5 MB), 8 MB by default.
+     */
+    public static S3WriteOption<Long> ofPartSize(long partSize) {
+        return new S3WriteOption<>(Name.S3_PART_SIZE, partSize);
+    }
+
+    /**
+     * Number of parts of a streamed multipart upload uploaded in parallel, 4 by default.
+     * The stream buffers at most one more part than that.
+     */
+    public static S3WriteOption<Long> ofUploadConcurrency(int concurrency) {
+        return new S3WriteOption<>(Name.S3_UPLOAD_CONCURRENCY, (long) concurrency);
+    }
 }
@@ -0,0 +1,18 @@
+package com.progralink.anystorage.aws.s3;
+
+import com.progralink.anystorage.api.StorageConnector;
+import com.progralink.anystorage.testsuite.AbstractStorageConcurrencyTestSuite;
+
+import java.io.IOException;
+
+public class S3StorageConcurrencyTest extends AbstractStorageConcurrencyTestSuite {
+    @Override
+    protected String getDefaultConnectionString() throws IOException {
+        return null; //use property/env: com.progralink.anystorage.aws.s3.S3StorageConcurrencyTest.URL=s3://...
+    }
+
+    @Override
+    protected StorageConnector provideConnector() {
+        return new S3StorageConnector();
+    }
+}
@@ -3,11 +3,27 @@ package com.progralink.anystorage.aws.s3;
 import com.progralink.anystorage.api.StorageConnector;
 import com.progralink.anystorage.api.StorageSession;
 import com.progralink.anystorage.testsuite.AbstractStorageTestSuite;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
 import software.amazon.awssdk.services.s3.model.StorageClass;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class S3StorageTest extends AbstractStorageTestSuite {
+    private static final int PART_SIZE = (int) S3MultipartOutputStream.MIN_PART_SIZE;
+
     StorageClass storageClass = null;
 
     @Override
@@ -26,4 +42,111 @@ public class S3StorageTest extends AbstractStorageTestSuite {
         session.setDefaultStorageClass(storageClass);
         return session;
     }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testMultipartOpenWrite() throws IOException {
+        byte[] data = randomBytes(2 * PART_SIZE + 1234);
+        S3StorageResource resource = (S3StorageResource) session.getResource("/multipart/open-write.bin");
+        try (OutputStream outputStream = resource.openWrite(S3WriteOption.ofPartSize(PART_SIZE), S3WriteOption.ofUploadConcurrency(2))) {
+            for (int offset = 0; offset < data.length; offset += 100_000) {
+                outputStream.write(data, offset, Math.min(100_000, data.length - offset));
+            }
+        }
+        assertArrayEquals(data, resource.readFully());
+        assertEquals(data.length, resource.getSize());
+
+        //smaller than a part: single PUT
+        try (OutputStream outputStream = resource.openWrite()) {
+            outputStream.write("small".getBytes(UTF_8));
+        }
+        assertEquals("small", new String(resource.readFully(), UTF_8));
+        assertTrue(listMultipartUploads(resource).isEmpty());
+
+        resource.getParent().deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testMultipartWriteOfUnknownLength() throws IOException {
+        byte[] data = randomBytes(3 * PART_SIZE + 17);
+        S3StorageResource resource = (S3StorageResource) session.getResource("/multipart/unknown-length.bin");
+        //a channel based stream hides its length
+        InputStream source = Channels.newInputStream(Channels.newChannel(new ByteArrayInputStream(data)));
+        assertEquals(data.length, resource.write(source, S3WriteOption.ofPartSize(PART_SIZE)));
+        assertArrayEquals(data, resource.readFully());
+        assertTrue(listMultipartUploads(resource).isEmpty());
+
+        resource.getParent().deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testFailedMultipartUploadIsAborted() throws IOException {
+        S3StorageResource resource = (S3StorageResource) session.getResource("/multipart/failed.bin");
+
+        //the source fails after two parts were uploaded
+        InputStream failingSource = new InputStream() {
+            private long remaining = 2L * PART_SIZE + 10;
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    throw new IOException("Source failed");
+                }
+                int n = (int) Math.min(len, remaining);
+                remaining -= n;
+                return n;
+            }
+        };
+        IOException sourceFailure = assertThrows(IOException.class, () -> resource.write(failingSource, S3WriteOption.ofPartSize(PART_SIZE)));
+        assertEquals("Source failed", sourceFailure.getMessage());
+        assertFalse(resource.exists());
+        assertTrue(listMultipartUploads(resource).isEmpty());
+
+        //the upload disappears while parts are being uploaded
+        byte[] data = randomBytes(3 * PART_SIZE);
+        OutputStream outputStream = resource.openWrite(S3WriteOption.ofPartSize(PART_SIZE), S3WriteOption.ofUploadConcurrency(1));
+        outputStream.write(data, 0, PART_SIZE + 1);
+        List<MultipartUpload> uploads = listMultipartUploads(resource);
+        assertEquals(1, uploads.size());
+        for (MultipartUpload upload : uploads) {
+            getS3Session().getClient().abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(getS3Session().getBucket())
+                    .key(upload.key())
+                    .uploadId(upload.uploadId())
+                    .build());
+        }
+        assertThrows(IOException.class, () -> {
+            outputStream.write(data, PART_SIZE + 1, data.length - PART_SIZE - 1);
+            outputStream.close();
+        });
+        outputStream.close();
+        assertFalse(resource.exists());
+        assertTrue(listMultipartUploads(resource).isEmpty());
+    }
+
+    private S3StorageSession getS3Session() {
+        return (S3StorageSession) session;
+    }
+
+    private List<MultipartUpload> listMultipartUploads(S3StorageResource resource) {
+        return getS3Session().getClient().listMultipartUploads(ListMultipartUploadsRequest.builder()
+                .bucket(getS3Session().getBucket())
+                .prefix(resource.getKey())
+                .build()
+        ).uploads();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
 }
@@ -0,0 +1,98 @@
+package com.progralink.anystorage.benchmarks;
+
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.aws.s3.S3StorageConnector;
+import com.progralink.anystorage.filesystem.FileSystemStorageSession;
+import com.progralink.anystorage.memory.MemoryStorageSession;
+import com.progralink.anystorage.sql.SQLStorageConnector;
+import org.gaul.s3proxy.AuthenticationType;
+import org.gaul.s3proxy.S3Proxy;
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStoreContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Session of a benchmarked backend (the {@code backend} parameter) with everything it needs in this JVM:
+ * a temporary directory, an in-memory H2 database or an S3Proxy server over an in-memory blob store.
+ */
+class BenchmarkBackend implements Closeable {
+    private static final String S3_BUCKET = "benchmark";
+    private static final String S3_IDENTITY = "benchmark";
+    private static final String S3_CREDENTIAL = "benchmark-secret";
+
+    private final StorageSession session;
+    private Path directory;
+    private S3Proxy s3Proxy;
+    private BlobStoreContext blobStoreContext;
+
+    BenchmarkBackend(String backend) throws Exception {
+        switch (backend) {
+            case "memory":
+                session = new MemoryStorageSession();
+                break;
+            case "filesystem":
+                directory = Files.createTempDirectory("anystorage-benchmark");
+                session = new FileSystemStorageSession(directory);
+                break;
+            case "sql":
+                session = new SQLStorageConnector().connect("jdbc:h2:mem:benchmark-" + UUID.randomUUID());
+                break;
+            case "s3":
+                session = startS3();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+    }
+
+    StorageSession getSession() {
+        return session;
+    }
+
+    private StorageSession startS3() throws Exception {
+        blobStoreContext = ContextBuilder.newBuilder("transient")
+                .credentials(S3_IDENTITY, S3_CREDENTIAL)
+                .build(BlobStoreContext.class);
+        blobStoreContext.getBlobStore().createContainerInLocation(null, S3_BUCKET);
+        s3Proxy = S3Proxy.builder()
+                .blobStore(blobStoreContext.getBlobStore())
+                .endpoint(URI.create("http://127.0.0.1:0"))
+                .awsAuthentication(AuthenticationType.AWS_V2_OR_V4, S3_IDENTITY, S3_CREDENTIAL)
+                .build();
+        s3Proxy.start();
+
+        Options options = Options.DEFAULTS
+                .with("AWS_REGION", "us-east-1")
+                .with("AWS_ENDPOINT_URL", "http://127.0.0.1:" + s3Proxy.getPort());
+        return new S3StorageConnector().connect("s3-benchmark", "s3://" + S3_IDENTITY + ":" + S3_CREDENTIAL + "@" + S3_BUCKET + "/", options);
+    }
+
+    @Override
+    public void close() throws IOException {
+        session.close();
+        if (s3Proxy != null) {
+            try {
+                s3Proxy.stop();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            blobStoreContext.close();
+        }
+        if (directory != null) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
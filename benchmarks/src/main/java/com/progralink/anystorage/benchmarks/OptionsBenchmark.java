@@ -0,0 +1,90 @@
+package com.progralink.anystorage.benchmarks;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.options.FlatOptions;
+import com.progralink.anystorage.api.options.Option;
+import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.WriteOption;
+import com.progralink.anystorage.memory.MemoryStorageSession;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call options overhead of a write: merging call options into session options
+ * and looking up the options checked by a write.
+ * {@code chained*} reproduce the former per-option {@code HierarchicalOptions} chain for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OptionsBenchmark {
+    private static final String[] WRITE_OPTION_NAMES = {
+            WriteOption.Name.ATOMIC,
+            WriteOption.Name.CREATE_NEW,
+            WriteOption.Name.APPEND,
+            WriteOption.Name.CONTENT_LENGTH,
+            WriteOption.Name.CREATION_TIME,
+            WriteOption.Name.LAST_MODIFIED_TIME,
+            WriteOption.Name.LAST_ACCESS_TIME,
+    };
+
+    private static final WriteOption<?>[] NO_OPTIONS = {};
+    private static final WriteOption<?>[] TWO_OPTIONS = {WriteOption.CREATE_NEW, WriteOption.ofContentLength(16)};
+
+    private Options chainedSessionOptions;
+    private Options flatSessionOptions;
+    private StorageResource resource;
+    private byte[] data;
+
+    @Setup
+    public void setup() throws Exception {
+        chainedSessionOptions = Options.DEFAULTS;
+        flatSessionOptions = FlatOptions.of(Options.DEFAULTS);
+        resource = new MemoryStorageSession().getResource("/benchmark.bin");
+        data = new byte[16];
+    }
+
+    @Benchmark
+    public void chainedNoOptions(Blackhole blackhole) {
+        lookup(chainedMerge(chainedSessionOptions, NO_OPTIONS), blackhole);
+    }
+
+    @Benchmark
+    public void flatNoOptions(Blackhole blackhole) {
+        lookup(Options.merge(flatSessionOptions, NO_OPTIONS), blackhole);
+    }
+
+    @Benchmark
+    public void chainedTwoOptions(Blackhole blackhole) {
+        lookup(chainedMerge(chainedSessionOptions, TWO_OPTIONS), blackhole);
+    }
+
+    @Benchmark
+    public void flatTwoOptions(Blackhole blackhole) {
+        lookup(Options.merge(flatSessionOptions, TWO_OPTIONS), blackhole);
+    }
+
+    @Benchmark
+    public void memoryWrite() throws Exception {
+        resource.write(data);
+    }
+
+    private static Options chainedMerge(Options baseOptions, Option<?>... options) {
+        Options result = baseOptions;
+        for (Option<?> option : options) {
+            result = result.with(option.getName(), option.getValue());
+        }
+        return result;
+    }
+
+    private static void lookup(Options options, Blackhole blackhole) {
+        for (String name : WRITE_OPTION_NAMES) {
+            blackhole.consume((Object) options.get(name));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.progralink.anystorage.benchmarks;
+
+import com.progralink.anystorage.api.StorageResource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes of one file per backend and payload size.
+ * 1 GB payloads are not in the default set, run them explicitly (with enough heap):
+ * {@code java -jar benchmarks.jar ReadWriteBenchmark -p payloadSize=1073741824 -jvmArgsAppend -Xmx6g -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ReadWriteBenchmark {
+    @Param({"memory", "filesystem", "sql", "s3"})
+    public String backend;
+
+    @Param({"1024", "1048576", "67108864"})
+    public int payloadSize;
+
+    private BenchmarkBackend benchmarkBackend;
+    private StorageResource readResource;
+    private StorageResource writeResource;
+    private byte[] data;
+    private byte[] buffer;
+    private Path sourceFile;
+    private Path targetFile;
+
+    @Setup
+    public void setup() throws Exception {
+        benchmarkBackend = new BenchmarkBackend(backend);
+        data = new byte[payloadSize];
+        new Random(42).nextBytes(data);
+        buffer = new byte[64 * 1024];
+        sourceFile = Files.createTempFile("anystorage-benchmark", ".bin");
+        Files.write(sourceFile, data);
+        targetFile = Files.createTempFile("anystorage-benchmark", ".bin");
+
+        readResource = benchmarkBackend.getSession().getResource("/benchmark/read.bin");
+        readResource.write(data);
+        writeResource = benchmarkBackend.getSession().getResource("/benchmark/write.bin");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        benchmarkBackend.close();
+        Files.deleteIfExists(sourceFile);
+        Files.deleteIfExists(targetFile);
+    }
+
+    @Benchmark
+    public byte[] readFully() throws Exception {
+        return readResource.readFully();
+    }
+
+    @Benchmark
+    public long openRead() throws Exception {
+        long total = 0;
+        try (InputStream inputStream = readResource.openRead()) {
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long readToPath() throws Exception {
+        return readResource.readTo(targetFile);
+    }
+
+    @Benchmark
+    public void writeBytes() throws Exception {
+        writeResource.write(data);
+    }
+
+    @Benchmark
+    public long writeStream() throws Exception {
+        //length not known up front, as for a network or decompressing stream
+        return writeResource.write(new ByteArrayInputStream(data));
+    }
+
+    @Benchmark
+    public long writePath() throws Exception {
+        return writeResource.write(sourceFile);
+    }
+}
@@ -0,0 +1,109 @@
+package com.progralink.anystorage.benchmarks;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Listing, path resolution and recursive delete per backend and tree shape:
+ * {@code "<fanOut>x<depth>"}, i.e. fanOut directories per level and fanOut small files in each leaf directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeBenchmark {
+    private static final byte[] FILE_CONTENT = new byte[100];
+
+    @Param({"memory", "filesystem", "sql", "s3"})
+    public String backend;
+
+    @Param({"1000x1", "10x3"})
+    public String treeShape;
+
+    private BenchmarkBackend benchmarkBackend;
+    private StorageResource root;
+    private String deepestFile;
+
+    @Setup
+    public void setup() throws Exception {
+        benchmarkBackend = new BenchmarkBackend(backend);
+        root = benchmarkBackend.getSession().getResource("/tree");
+        deepestFile = createTree(root, treeShape);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        benchmarkBackend.close();
+    }
+
+    @Benchmark
+    public void listChildren(Blackhole blackhole) throws Exception {
+        try (Stream<StorageResourceEntry> entries = root.childrenWithAttributes()) {
+            entries.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void walk(Blackhole blackhole) throws Exception {
+        try (Stream<StorageResourceEntry> entries = root.walk()) {
+            entries.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public StorageResource resolve() throws Exception {
+        return root.resolve(deepestFile);
+    }
+
+    /**
+     * Each measured call deletes a freshly created tree.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public boolean deleteDeep(DeleteState state) throws Exception {
+        return state.tree.deleteDeep(true);
+    }
+
+    @State(Scope.Thread)
+    public static class DeleteState {
+        StorageResource tree;
+
+        @Setup(Level.Invocation)
+        public void setup(TreeBenchmark benchmark) throws Exception {
+            tree = benchmark.benchmarkBackend.getSession().getResource("/delete");
+            createTree(tree, benchmark.treeShape);
+        }
+    }
+
+    /**
+     * @return relative path of the last created file
+     */
+    static String createTree(StorageResource root, String treeShape) throws Exception {
+        int separator = treeShape.indexOf('x');
+        int fanOut = Integer.parseInt(treeShape.substring(0, separator));
+        int depth = Integer.parseInt(treeShape.substring(separator + 1));
+        return createLevel(root, "", fanOut, depth);
+    }
+
+    private static String createLevel(StorageResource root, String prefix, int fanOut, int depth) throws Exception {
+        String last = null;
+        for (int i = 0; i < fanOut; i++) {
+            if (depth > 1) {
+                last = createLevel(root, prefix + "d" + i + "/", fanOut, depth - 1);
+            } else {
+                last = prefix + "f" + i + ".bin";
+                root.resolve(last).write(FILE_CONTENT);
+            }
+        }
+        return last;
+    }
+}
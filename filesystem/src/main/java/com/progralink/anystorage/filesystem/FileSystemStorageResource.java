@@ -1,31 +1,52 @@
 package com.progralink.anystorage.filesystem;
 
 import com.progralink.anystorage.api.AbstractStorageResource;
+import com.progralink.anystorage.api.ResourceAttributes;
 import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.io.BoundedInputStream;
+import com.progralink.anystorage.api.io.FileChannels;
+import com.progralink.anystorage.api.options.ByteRange;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
+import com.progralink.anystorage.api.trace.StorageSpan;
+import com.progralink.anystorage.api.trace.StorageTracing;
 import com.progralink.jinout.streams.IOStreams;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class FileSystemStorageResource extends AbstractStorageResource {
     private static final long FILE_LOCK_RECURRENT_TIMEOUT_MILLIS = 10000;
+    private static final String CHECKSUM_ATTRIBUTE_PREFIX = "anystorage.checksum.";
 
     private final Path path;
 
@@ -118,6 +139,25 @@ public class FileSystemStorageResource extends AbstractStorageResource {
     @Override
     protected InputStream openInputStream(Options options) throws IOException {
         try {
+            ByteRange range = options.get(ReadOption.Name.RANGE);
+            if (range != null) {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                try {
+                    channel.position(range.getOffset());
+                    InputStream inputStream = Channels.newInputStream(channel);
+                    if (range.hasLength()) {
+                        return new BoundedInputStream(inputStream, range.getLength());
+                    }
+                    return inputStream;
+                } catch (Exception e) {
+                    try {
+                        channel.close();
+                    } catch (IOException closeException) {
+                        e.addSuppressed(closeException);
+                    }
+                    throw e;
+                }
+            }
             return Files.newInputStream(path);
         } catch (Exception e) {
             throw translateException(e);
@@ -125,30 +165,165 @@ public class FileSystemStorageResource extends AbstractStorageResource {
     }
 
     @Override
-    protected OutputStream openOutputStream(Options options) throws IOException {
-        Files.createDirectories(path.getParent());
+    protected long transferTo(WritableByteChannel target, Options options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteRange range = options.get(ReadOption.Name.RANGE);
+            long offset = range != null ? Math.min(range.getOffset(), size) : 0;
+            long length = range != null ? range.getLengthWithin(size) : size;
+            return FileChannels.transfer(channel, offset, length, target);
+        }
+    }
 
-        List<StandardOpenOption> openOptions = new LinkedList<>();
-        if (WriteOption.CREATE_NEW.isEnabled(options)) {
-            openOptions.add(StandardOpenOption.CREATE_NEW);
+    @Override
+    public ResourceAttributes stat() throws IOException {
+        try {
+            return toResourceAttributes(Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return ResourceAttributes.NOT_FOUND;
+        } catch (Exception e) {
+            throw translateException(e);
         }
-        else if (WriteOption.APPEND.isEnabled(options)) {
-            openOptions.add(StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Checksums computed with {@link ReadOption#COMPUTE_CHECKSUM} are cached in a user-defined file attribute
+     * (where supported by the filesystem) together with the size and last modified time they were computed for.
+     */
+    @Override
+    public Optional<byte[]> getChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        try {
+            String stamp = getChecksumStamp();
+            String attributeName = CHECKSUM_ATTRIBUTE_PREFIX + algorithm.toLowerCase(Locale.ROOT);
+            UserDefinedFileAttributeView view = Files.getFileAttributeView(path, UserDefinedFileAttributeView.class);
+            if (view != null) {
+                byte[] cached = readCachedChecksum(view, attributeName, stamp);
+                if (cached != null) {
+                    return Optional.of(cached);
+                }
+            }
+
+            if (!ReadOption.COMPUTE_CHECKSUM.isEnabled(Options.merge(getSession().getOptions(), options))) {
+                return Optional.empty();
+            }
+            byte[] checksum = computeChecksum(algorithm, options);
+            //not cached when the content changed while being read
+            if (view != null && stamp.equals(getChecksumStamp())) {
+                try {
+                    view.write(attributeName, ByteBuffer.wrap((stamp + " " + Base64.getEncoder().encodeToString(checksum)).getBytes(StandardCharsets.UTF_8)));
+                } catch (IOException | UnsupportedOperationException ignore) {
+                    //read-only file or no support for user attributes
+                }
+            }
+            return Optional.of(checksum);
+        } catch (IOException e) {
+            throw translateException(e);
         }
+    }
 
+    private String getChecksumStamp() throws IOException {
+        BasicFileAttributes fileAttributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!fileAttributes.isRegularFile()) {
+            throw new NotFoundException();
+        }
+        Instant lastModified = fileAttributes.lastModifiedTime().toInstant();
+        return fileAttributes.size() + ":" + lastModified.getEpochSecond() + "." + lastModified.getNano();
+    }
+
+    private static byte[] readCachedChecksum(UserDefinedFileAttributeView view, String attributeName, String stamp) {
         try {
-            return Files.newOutputStream(path);
+            ByteBuffer buffer = ByteBuffer.allocate(view.size(attributeName));
+            view.read(attributeName, buffer);
+            String value = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+            if (value.startsWith(stamp + " ")) {
+                return Base64.getDecoder().decode(value.substring(stamp.length() + 1));
+            }
+        } catch (IOException | RuntimeException ignore) {
+            //not cached yet or no support for user attributes
+        }
+        return null;
+    }
+
+    static ResourceAttributes toResourceAttributes(BasicFileAttributes fileAttributes) {
+        return ResourceAttributes.builder()
+                .exists(true)
+                .file(fileAttributes.isRegularFile())
+                .directory(fileAttributes.isDirectory())
+                .size(fileAttributes.size())
+                .timeCreated(fileAttributes.creationTime().toInstant())
+                .timeLastModified(fileAttributes.lastModifiedTime().toInstant())
+                .timeLastAccess(fileAttributes.lastAccessTime().toInstant())
+                .build();
+    }
+
+    @Override
+    protected SeekableByteChannel openSeekableChannel(boolean writable, Options options) throws IOException {
+        try {
+            if (!writable) {
+                return FileChannel.open(path, StandardOpenOption.READ);
+            }
+
+            Files.createDirectories(path.getParent());
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    WriteOption.CREATE_NEW.isEnabled(options) ? StandardOpenOption.CREATE_NEW : StandardOpenOption.CREATE
+            );
+            if (WriteOption.APPEND.isEnabled(options)) {
+                channel.position(channel.size());
+            }
+            return channel;
         } catch (Exception e) {
             throw translateException(e);
         }
     }
 
+    @Override
+    protected OutputStream openOutputStream(Options options) throws IOException {
+        Files.createDirectories(path.getParent());
+
+        try {
+            return Files.newOutputStream(path, getOpenOptions(options));
+        } catch (Exception e) {
+            throw translateException(e);
+        }
+    }
+
+    private static OpenOption[] getOpenOptions(Options options) {
+        List<StandardOpenOption> openOptions = new LinkedList<>();
+        openOptions.add(StandardOpenOption.WRITE);
+        if (WriteOption.CREATE_NEW.isEnabled(options)) {
+            openOptions.add(StandardOpenOption.CREATE_NEW);
+        } else if (WriteOption.APPEND.isEnabled(options)) {
+            //O_APPEND: every write lands at the current end, also with concurrent writers
+            openOptions.add(StandardOpenOption.CREATE);
+            openOptions.add(StandardOpenOption.APPEND);
+        } else {
+            openOptions.add(StandardOpenOption.CREATE);
+            openOptions.add(StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        return openOptions.toArray(new OpenOption[0]);
+    }
+
     @Override
     protected long writeStream(InputStream source, Options options) throws Exception {
+        return writeContent(target -> IOStreams.transfer(source, Channels.newOutputStream(target)), options);
+    }
+
+    @Override
+    protected long writeFile(Path sourceFilePath, Options options) throws Exception {
+        try (FileChannel source = FileChannel.open(sourceFilePath, StandardOpenOption.READ)) {
+            return writeContent(target -> FileChannels.transfer(source, target), options);
+        }
+    }
+
+    private long writeContent(ContentWriter writer, Options options) throws Exception {
         Files.createDirectories(path.getParent());
 
         if (!WriteOption.ATOMIC.isEnabled(options)) {
-            return super.writeStream(source, options);
+            try (FileChannel target = FileChannel.open(path, getOpenOptions(options))) {
+                return writer.write(target);
+            }
         }
 
         boolean overwrite = !options.getBoolean(WriteOption.CREATE_NEW.getName());
@@ -165,9 +340,10 @@ public class FileSystemStorageResource extends AbstractStorageResource {
         }
 
         Path tempFilePath = parentPath.resolve(".~" + targetFilePath.getFileName() + "." + UUID.randomUUID() + ".TMP");
+        long size;
         try {
-            try (OutputStream out = Files.newOutputStream(tempFilePath, StandardOpenOption.CREATE_NEW)) {
-                IOStreams.transfer(source, out);
+            try (FileChannel target = FileChannel.open(tempFilePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                size = writer.write(target);
             }
 
             lockFile = new FileBasedLock(targetFilePath.resolveSibling(".~" + targetFilePath.getFileName() + ".LOCK"));
@@ -184,9 +360,11 @@ public class FileSystemStorageResource extends AbstractStorageResource {
 
                 try {
                     if (overwrite) {
-                        Files.move(tempFilePath, targetFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                        //no COPY_ATTRIBUTES: a rename keeps them anyway and the option makes an atomic move unsupported
+                        Files.move(tempFilePath, targetFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
                     } else {
-                        Files.move(tempFilePath, targetFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.COPY_ATTRIBUTES);
+                        //a rename would replace a file created meanwhile by another writer, a hard link fails instead
+                        Files.createLink(targetFilePath, tempFilePath);
                     }
                 } catch (AccessDeniedException | AtomicMoveNotSupportedException | UnsupportedOperationException e) {
                     if (overwrite) {
@@ -222,7 +400,62 @@ public class FileSystemStorageResource extends AbstractStorageResource {
                 } catch (IOException ignore) { }
             }
         }
-        return 0;
+        return size;
+    }
+
+    @Override
+    protected boolean copyWithinSession(StorageResource target, Options options) throws Exception {
+        if (!(target instanceof FileSystemStorageResource)) {
+            return false;
+        }
+        Path targetPath = ((FileSystemStorageResource) target).path;
+        Files.createDirectories(targetPath.getParent());
+        boolean overwrite = !WriteOption.CREATE_NEW.isEnabled(options);
+
+        //Files.copy lets the JDK use the platform copy (no reflink/clone API is reachable without native code)
+        if (WriteOption.ATOMIC.isEnabled(options)) {
+            Path tempFilePath = targetPath.resolveSibling(".~" + targetPath.getFileName() + "." + UUID.randomUUID() + ".TMP");
+            try {
+                Files.copy(path, tempFilePath);
+                applyOptionalTimes(tempFilePath, options);
+                move(tempFilePath, targetPath, overwrite);
+            } finally {
+                Files.deleteIfExists(tempFilePath);
+            }
+        } else {
+            if (overwrite) {
+                Files.copy(path, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.copy(path, targetPath);
+            }
+            applyOptionalTimes(targetPath, options);
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean moveWithinSession(StorageResource target, Options options) throws Exception {
+        if (!(target instanceof FileSystemStorageResource)) {
+            return false;
+        }
+        Path targetPath = ((FileSystemStorageResource) target).path;
+        Files.createDirectories(targetPath.getParent());
+        move(path, targetPath, !WriteOption.CREATE_NEW.isEnabled(options));
+        applyOptionalTimes(targetPath, options);
+        return true;
+    }
+
+    private static void move(Path source, Path target, boolean overwrite) throws IOException {
+        if (!overwrite) {
+            //an atomic move may silently replace an existing target
+            Files.move(source, target);
+            return;
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     protected void applyOptionalTimes(Path path, Options options) {
@@ -247,11 +480,15 @@ public class FileSystemStorageResource extends AbstractStorageResource {
 
     @Override
     public Stream<StorageResource> children() throws IOException {
+        StorageSpan span = StorageTracing.begin("list", this);
         try {
-            return Files.list(path)
+            Stream<Path> paths = Files.list(path);
+            span.end(null);
+            return paths
                     .filter(p -> !p.getFileName().toString().startsWith(".~"))
                     .map(p -> new FileSystemStorageResource(this, p));
         } catch (Exception e) {
+            span.end(e);
             try {
                 throw translateException(e);
             } catch (NotFoundException nfe) {
@@ -260,6 +497,81 @@ public class FileSystemStorageResource extends AbstractStorageResource {
         }
     }
 
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        DirectoryStream<Path> directoryStream;
+        StorageSpan span = StorageTracing.begin("list", this);
+        try {
+            directoryStream = Files.newDirectoryStream(path, p -> !p.getFileName().toString().startsWith(".~"));
+            span.end(null);
+        } catch (Exception e) {
+            span.end(e);
+            try {
+                throw translateException(e);
+            } catch (NotFoundException nfe) {
+                return Stream.empty();
+            }
+        }
+
+        //on some platforms (e.g. Windows) attributes are already cached by the directory listing
+        return StreamSupport.stream(directoryStream.spliterator(), false)
+                .onClose(() -> {
+                    try {
+                        directoryStream.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .map(p -> {
+                    try {
+                        BasicFileAttributes fileAttributes = Files.readAttributes(p, BasicFileAttributes.class);
+                        return new StorageResourceEntry(p.getFileName().toString(), new FileSystemStorageResource(this, p), toResourceAttributes(fileAttributes));
+                    } catch (NoSuchFileException e) {
+                        return null; //removed in the meantime
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        if (maxDepth < 1) {
+            return Stream.empty();
+        }
+        Stream<Path> paths;
+        StorageSpan span = StorageTracing.begin("list", this);
+        try {
+            //pull-based counterpart of Files.walkFileTree, keeps only the open directories in memory
+            paths = Files.walk(path, maxDepth);
+            span.end(null);
+        } catch (Exception e) {
+            span.end(e);
+            try {
+                throw translateException(e);
+            } catch (NotFoundException nfe) {
+                return Stream.empty();
+            }
+        }
+
+        return paths
+                .filter(p -> !p.equals(path) && !p.getFileName().toString().startsWith(".~"))
+                .map(p -> {
+                    try {
+                        BasicFileAttributes fileAttributes = Files.readAttributes(p, BasicFileAttributes.class);
+                        String relativePath = path.relativize(p).toString().replace(p.getFileSystem().getSeparator(), "/");
+                        return new StorageResourceEntry(relativePath, resolve(relativePath), toResourceAttributes(fileAttributes));
+                    } catch (NoSuchFileException e) {
+                        return null; //removed in the meantime
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Objects::nonNull)
+                .filter(filter);
+    }
+
     @Override
     public StorageResource child(String name) throws IOException {
         try {
@@ -275,7 +587,15 @@ public class FileSystemStorageResource extends AbstractStorageResource {
 
     @Override
     public boolean delete(DeleteOption<?>... options) throws IOException {
-        return Files.deleteIfExists(path);
+        StorageSpan span = StorageTracing.begin("delete", this);
+        try {
+            boolean deleted = Files.deleteIfExists(path);
+            span.end(null);
+            return deleted;
+        } catch (IOException | RuntimeException e) {
+            span.end(e);
+            throw e;
+        }
     }
 
     @Override
@@ -313,4 +633,7 @@ public class FileSystemStorageResource extends AbstractStorageResource {
         return path.toString();
     }
 
+    private interface ContentWriter {
+        long write(FileChannel target) throws IOException;
+    }
 }
@@ -3,6 +3,7 @@ package com.progralink.anystorage.filesystem;
 import com.progralink.anystorage.api.AbstractStorageSession;
 import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
 
 import java.nio.file.Path;
@@ -30,6 +31,7 @@ public class FileSystemStorageSession extends AbstractStorageSession {
                 option == WriteOption.CREATE_NEW ||
                 WriteOption.Name.CREATION_TIME.equals(option.getName()) ||
                 WriteOption.Name.LAST_MODIFIED_TIME.equals(option.getName()) ||
-                WriteOption.Name.LAST_ACCESS_TIME.equals(option.getName());
+                WriteOption.Name.LAST_ACCESS_TIME.equals(option.getName()) ||
+                ReadOption.Name.RANGE.equals(option.getName());
     }
 }
@@ -0,0 +1,28 @@
+package com.progralink.anystorage.jfr;
+
+import com.progralink.anystorage.api.trace.StorageSpan;
+import com.progralink.anystorage.api.trace.StorageTracer;
+import jdk.jfr.EventType;
+
+/**
+ * Emits a {@link StorageOperationEvent} per operation while a recording with the event enabled is running.
+ */
+public class JfrStorageTracer implements StorageTracer {
+    private static final EventType EVENT_TYPE = EventType.getEventType(StorageOperationEvent.class);
+
+    @Override
+    public boolean isEnabled() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    @Override
+    public StorageSpan begin(String sessionName, String backendType, String operation, String path) {
+        StorageOperationEvent event = new StorageOperationEvent();
+        event.session = sessionName;
+        event.backend = backendType;
+        event.operation = operation;
+        event.path = path;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,56 @@
+package com.progralink.anystorage.jfr;
+
+import com.progralink.anystorage.api.trace.StorageSpan;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Disabled by default, enabled by a recording settings file (a copy of {@code default.jfc} with
+ * {@code <event name="com.progralink.anystorage.Operation"><setting name="enabled">true</setting></event>})
+ * or {@code recording.enable(StorageOperationEvent.NAME)}.
+ */
+@Name(StorageOperationEvent.NAME)
+@Label("Storage Operation")
+@Description("Operation of an AnyStorage session or a request made by its backend")
+@Category({"AnyStorage"})
+@Enabled(false)
+@StackTrace(false)
+public class StorageOperationEvent extends jdk.jfr.Event implements StorageSpan {
+    public static final String NAME = "com.progralink.anystorage.Operation";
+
+    @Label("Session")
+    String session;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    @Description("\"success\" or the class name of the exception")
+    String outcome;
+
+    @Override
+    public void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    @Override
+    public void end(Throwable failure) {
+        outcome = failure != null ? failure.getClass().getName() : "success";
+        commit();
+    }
+}
@@ -0,0 +1,71 @@
+package com.progralink.anystorage.jfr;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.trace.StorageTracing;
+import com.progralink.anystorage.memory.MemoryStorageConnector;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrStorageTracerTest {
+    @Test
+    void testEventsRecordedOnlyWhileEnabled() throws IOException {
+        StorageSession session = new MemoryStorageConnector().connect("jfr", "mem:jfr");
+        StorageResource resource = session.getResource("/traced/a.txt");
+        assertFalse(StorageTracing.isEnabled());
+
+        Path file = Files.createTempFile("anystorage", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(StorageOperationEvent.NAME).withThreshold(Duration.ZERO);
+                recording.start();
+                assertTrue(StorageTracing.isEnabled());
+
+                resource.write("hello".getBytes(UTF_8));
+                try (InputStream inputStream = resource.openRead()) {
+                    inputStream.readAllBytes();
+                }
+                assertThrows(NotFoundException.class, () -> session.getResource("/traced/missing.txt").openRead());
+
+                recording.stop();
+                recording.dump(file);
+            }
+            assertFalse(StorageTracing.isEnabled());
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(StorageOperationEvent.NAME))
+                    .collect(Collectors.toList());
+            RecordedEvent write = find(events, "write", "/traced/a.txt");
+            assertEquals("jfr", write.getString("session"));
+            assertEquals("Memory", write.getString("backend"));
+            assertEquals(5, write.getLong("bytes"));
+            assertEquals("success", write.getString("outcome"));
+            assertEquals(5, find(events, "openRead", "/traced/a.txt").getLong("bytes"));
+            assertEquals(NotFoundException.class.getName(), find(events, "openRead", "/traced/missing.txt").getString("outcome"));
+        } finally {
+            Files.deleteIfExists(file);
+            session.close();
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String operation, String path) {
+        return events.stream()
+                .filter(event -> operation.equals(event.getString("operation")) && path.equals(event.getString("path")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + operation + " event of " + path + " in " + events));
+    }
+}
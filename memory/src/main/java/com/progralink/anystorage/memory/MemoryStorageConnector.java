@@ -7,9 +7,11 @@ import com.progralink.anystorage.api.options.Options;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 public class MemoryStorageConnector extends AbstractStorageConnector {
-    protected Map<String, Map<String, byte[]>> allDataMaps = new ConcurrentHashMap<>();
+    protected Map<String, ConcurrentNavigableMap<String, byte[]>> allDataMaps = new ConcurrentHashMap<>();
 
     @Override
     public String getTypeLabel() {
@@ -31,7 +33,7 @@ public class MemoryStorageConnector extends AbstractStorageConnector {
         if (connectionString.length() > 4) {
             namespace = connectionString.substring(4);
         }
-        Map<String, byte[]> dataMap = allDataMaps.computeIfAbsent(namespace, n -> new ConcurrentHashMap<>());
+        ConcurrentNavigableMap<String, byte[]> dataMap = allDataMaps.computeIfAbsent(namespace, n -> new ConcurrentSkipListMap<>());
         return new MemoryStorageSession(name, dataMap, options);
     }
 
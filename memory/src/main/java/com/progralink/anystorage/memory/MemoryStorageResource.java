@@ -1,19 +1,27 @@
 package com.progralink.anystorage.memory;
 
 import com.progralink.anystorage.api.AbstractStorageResource;
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.ResourceWalker;
 import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
 import com.progralink.anystorage.api.exceptions.NotEmptyDirectoryException;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.io.ByteArrayChannel;
+import com.progralink.anystorage.api.options.ByteRange;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
 
 import java.io.*;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.nio.channels.SeekableByteChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class MemoryStorageResource extends AbstractStorageResource {
     private String name = "";
@@ -42,6 +50,11 @@ public class MemoryStorageResource extends AbstractStorageResource {
         if (data == null) {
             throw new NotFoundException();
         }
+        ByteRange range = options.get(ReadOption.Name.RANGE);
+        if (range != null) {
+            int offset = (int) Math.min(range.getOffset(), data.length);
+            return new ByteArrayInputStream(data, offset, (int) range.getLengthWithin(data.length));
+        }
         return new ByteArrayInputStream(data);
     }
 
@@ -51,29 +64,88 @@ public class MemoryStorageResource extends AbstractStorageResource {
             @Override
             public void close() throws IOException {
                 byte[] written = this.toByteArray();
-                byte[] target = written;
-
-                if (WriteOption.APPEND.isEnabled(options)) {
-                    byte[] data = getData();
-                    if (data != null) {
-                        target = new byte[data.length + written.length];
-                        System.arraycopy(data, 0, target, 0, data.length);
-                        System.arraycopy(written, 0, target, data.length, written.length);
-                    }
-                }
+                boolean createNew = WriteOption.CREATE_NEW.isEnabled(options);
 
-                if (WriteOption.CREATE_NEW.isEnabled(options)) {
-                    if (getSession().getDataMap().putIfAbsent(getLocalPath(), target) != null) {
-                        throw new AlreadyExistsException();
-                    }
+                if (WriteOption.APPEND.isEnabled(options) && !createNew) {
+                    //merge is atomic, concurrent appends never lose each other's data
+                    getSession().getDataMap().merge(getLocalPath(), written, MemoryStorageResource::concat);
                 } else {
-                    getSession().getDataMap().put(getLocalPath(), target);
+                    store(getLocalPath(), written, createNew);
                 }
                 super.close();
             }
         };
     }
 
+    @Override
+    protected SeekableByteChannel openSeekableChannel(boolean writable, Options options) throws Exception {
+        byte[] data = getData();
+        if (!writable) {
+            if (data == null) {
+                throw new NotFoundException();
+            }
+            return new ByteArrayChannel(data, false);
+        }
+
+        boolean created = data == null;
+        boolean createNew = WriteOption.CREATE_NEW.isEnabled(options);
+        ByteArrayChannel channel = new ByteArrayChannel(created ? new byte[0] : data, true) {
+            @Override
+            public void close() throws IOException {
+                if (!isOpen()) {
+                    return;
+                }
+                super.close();
+                if (created || isModified()) {
+                    store(getLocalPath(), toByteArray(), createNew);
+                }
+            }
+        };
+        if (WriteOption.APPEND.isEnabled(options)) {
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+
+    @Override
+    protected boolean copyWithinSession(StorageResource target, Options options) throws Exception {
+        byte[] data = getData();
+        if (data == null) {
+            throw new NotFoundException();
+        }
+        //arrays are never modified in place, so both paths can share it
+        store(target.getLocalPath(), data, WriteOption.CREATE_NEW.isEnabled(options));
+        return true;
+    }
+
+    @Override
+    protected boolean moveWithinSession(StorageResource target, Options options) throws Exception {
+        byte[] data = getData();
+        if (data == null) {
+            throw new NotFoundException();
+        }
+        store(target.getLocalPath(), data, WriteOption.CREATE_NEW.isEnabled(options));
+        getSession().getDataMap().remove(getLocalPath(), data);
+        return true;
+    }
+
+    private static byte[] concat(byte[] data, byte[] appended) {
+        byte[] result = new byte[data.length + appended.length];
+        System.arraycopy(data, 0, result, 0, data.length);
+        System.arraycopy(appended, 0, result, data.length, appended.length);
+        return result;
+    }
+
+    private void store(String path, byte[] data, boolean createNew) throws IOException {
+        if (createNew) {
+            if (getSession().getDataMap().putIfAbsent(path, data) != null) {
+                throw new AlreadyExistsException();
+            }
+        } else {
+            getSession().getDataMap().put(path, data);
+        }
+    }
+
     @Override
     public boolean isFile() throws IOException {
         return getData() != null;
@@ -99,27 +171,54 @@ public class MemoryStorageResource extends AbstractStorageResource {
     }
 
     @Override
-    public Stream<StorageResource> children() throws IOException {
-        Set<String> childrenNames = new LinkedHashSet<>();
-        String localPath = getLocalPath();
-        for (String path : getSession().getDataMap().keySet()) {
-            if (path.startsWith(localPath + "/")) {
-                String restOfThePath = path.substring(localPath.length() + 1);
-                if (restOfThePath.contains("/")) {
-                    childrenNames.add(restOfThePath.substring(0, restOfThePath.indexOf('/')));
-                } else {
-                    childrenNames.add(restOfThePath);
-                }
-            }
+    public ResourceAttributes stat() throws IOException {
+        byte[] data = getData();
+        if (data != null) {
+            return ResourceAttributes.builder()
+                    .exists(true)
+                    .file(true)
+                    .size(data.length)
+                    .build();
+        }
+        if (hasChildren()) {
+            return ResourceAttributes.builder().directory(true).build();
         }
+        return ResourceAttributes.NOT_FOUND;
+    }
 
-        return childrenNames.stream().map(name -> {
-            try {
-                return child(name);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        });
+    @Override
+    public Stream<StorageResource> children() throws IOException {
+        return childrenWithAttributes().map(StorageResourceEntry::getResource);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        return childrenWithAttributes(null);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes(String continuationToken) throws IOException {
+        ChildrenIterator iterator = new ChildrenIterator(getLocalPath() + "/", continuationToken);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        int prefixLength = getLocalPath().length() + 1;
+        Stream<Map.Entry<String, ResourceAttributes>> files = descendants().entrySet().stream().map(entry ->
+                new AbstractMap.SimpleImmutableEntry<>(entry.getKey().substring(prefixLength), ResourceAttributes.builder()
+                        .exists(true)
+                        .file(true)
+                        .size(entry.getValue().length)
+                        .build())
+        );
+        return ResourceWalker.fromSortedKeys(this, files, maxDepth).filter(filter);
+    }
+
+    protected ConcurrentNavigableMap<String, byte[]> descendants() throws IOException {
+        String localPath = getLocalPath();
+        //'0' is the character following '/'
+        return getSession().getDataMap().subMap(localPath + "/", localPath + "0");
     }
 
     @Override
@@ -127,6 +226,20 @@ public class MemoryStorageResource extends AbstractStorageResource {
         return new MemoryStorageResource(this, name);
     }
 
+    @Override
+    public boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
+        //the whole sorted range at once, no listing per directory
+        ConcurrentNavigableMap<String, byte[]> descendants = descendants();
+        boolean deleted = false;
+        while (descendants.pollFirstEntry() != null) {
+            deleted = true;
+        }
+        if (includeSelf && getSession().getDataMap().remove(getLocalPath()) != null) {
+            deleted = true;
+        }
+        return deleted;
+    }
+
     @Override
     public boolean delete(DeleteOption<?>... options) throws IOException {
         if (children().findAny().isPresent()) {
@@ -134,4 +247,71 @@ public class MemoryStorageResource extends AbstractStorageResource {
         }
         return getSession().getDataMap().remove(getLocalPath()) != null;
     }
+
+    //steps through the sorted map jumping over the content of each directory
+    private class ChildrenIterator implements Iterator<StorageResourceEntry> {
+        private final String prefix;
+        private final ConcurrentNavigableMap<String, byte[]> descendants;
+        private String from;
+        private boolean fromInclusive;
+        private StorageResourceEntry next;
+
+        ChildrenIterator(String prefix, String continuationToken) {
+            this.prefix = prefix;
+            this.descendants = getSession().getDataMap().subMap(prefix, prefix.substring(0, prefix.length() - 1) + "0");
+            if (continuationToken == null) {
+                from = prefix;
+                fromInclusive = true;
+            } else if (continuationToken.endsWith("/")) {
+                from = prefix + continuationToken.substring(0, continuationToken.length() - 1) + "0";
+                fromInclusive = true;
+            } else {
+                from = prefix + continuationToken;
+                fromInclusive = false;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                Map.Entry<String, byte[]> entry = fromInclusive ? descendants.ceilingEntry(from) : descendants.higherEntry(from);
+                if (entry == null) {
+                    return false;
+                }
+                String path = entry.getKey();
+                String name = path.substring(prefix.length());
+                int i = name.indexOf('/');
+                if (i == -1) {
+                    boolean directory = !descendants.subMap(path + "/", path + "0").isEmpty();
+                    next = new StorageResourceEntry(name, new MemoryStorageResource(MemoryStorageResource.this, name), ResourceAttributes.builder()
+                            .exists(true)
+                            .file(true)
+                            .directory(directory)
+                            .size(entry.getValue().length)
+                            .build());
+                    from = path;
+                    fromInclusive = false;
+                } else {
+                    name = name.substring(0, i);
+                    from = prefix + name + "0";
+                    fromInclusive = true;
+                    //a file of the same name was listed together with the directory
+                    if (!descendants.containsKey(prefix + name)) {
+                        next = new StorageResourceEntry(name, new MemoryStorageResource(MemoryStorageResource.this, name), ResourceAttributes.builder().directory(true).build());
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public StorageResourceEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StorageResourceEntry entry = next;
+            next = null;
+            return entry;
+        }
+    }
 }
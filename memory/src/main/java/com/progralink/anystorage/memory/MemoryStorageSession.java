@@ -3,14 +3,15 @@ package com.progralink.anystorage.memory;
 import com.progralink.anystorage.api.AbstractStorageSession;
 import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
 
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 public class MemoryStorageSession extends AbstractStorageSession {
-    private Map<String, byte[]> dataMap;
+    private ConcurrentNavigableMap<String, byte[]> dataMap;
 
     public MemoryStorageSession() {
         this("mem@" + UUID.randomUUID(), Options.DEFAULTS);
@@ -18,17 +19,17 @@ public class MemoryStorageSession extends AbstractStorageSession {
 
     public MemoryStorageSession(String name, Options options) {
         super(name, options);
-        this.dataMap = new ConcurrentHashMap<>();
+        this.dataMap = new ConcurrentSkipListMap<>();
         this.rootResource = new MemoryStorageResource(this);
     }
 
-    MemoryStorageSession(String name, Map<String, byte[]> dataMap, Options options) {
+    MemoryStorageSession(String name, ConcurrentNavigableMap<String, byte[]> dataMap, Options options) {
         super(name, options);
         this.dataMap = dataMap;
         this.rootResource = new MemoryStorageResource(this);
     }
 
-    Map<String, byte[]> getDataMap() {
+    ConcurrentNavigableMap<String, byte[]> getDataMap() {
         return dataMap;
     }
 
@@ -39,6 +40,9 @@ public class MemoryStorageSession extends AbstractStorageSession {
 
     @Override
     public boolean isSupported(Option<?> option) {
-        return option == WriteOption.ATOMIC || option == WriteOption.APPEND || option == WriteOption.CREATE_NEW;
+        return option == WriteOption.ATOMIC ||
+                option == WriteOption.APPEND ||
+                option == WriteOption.CREATE_NEW ||
+                ReadOption.Name.RANGE.equals(option.getName());
     }
 }
@@ -0,0 +1,18 @@
+package com.progralink.anystorage.memory;
+
+import com.progralink.anystorage.api.StorageConnector;
+import com.progralink.anystorage.testsuite.AbstractStorageConcurrencyTestSuite;
+
+import java.io.IOException;
+
+public class MemoryStorageConcurrencyTest extends AbstractStorageConcurrencyTestSuite {
+    @Override
+    protected String getDefaultConnectionString() throws IOException {
+        return "mem:concurrency-test";
+    }
+
+    @Override
+    protected StorageConnector provideConnector() {
+        return new MemoryStorageConnector();
+    }
+}
@@ -0,0 +1,122 @@
+package com.progralink.anystorage.smb;
+
+import jcifs.SmbRandomAccess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+class SMBSeekableByteChannel implements SeekableByteChannel {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SmbRandomAccess file;
+    private final boolean writable;
+    private byte[] buffer;
+    private boolean open = true;
+
+    SMBSeekableByteChannel(SmbRandomAccess file, boolean writable) {
+        this.file = file;
+        this.writable = writable;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        int n;
+        if (dst.hasArray()) {
+            n = file.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+        } else {
+            byte[] b = getBuffer();
+            n = file.read(b, 0, Math.min(b.length, dst.remaining()));
+            if (n > 0) {
+                dst.put(b, 0, n);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        if (!writable) {
+            throw new NonWritableChannelException();
+        }
+        int n = src.remaining();
+        if (src.hasArray()) {
+            file.write(src.array(), src.arrayOffset() + src.position(), n);
+            src.position(src.position() + n);
+        } else {
+            byte[] b = getBuffer();
+            while (src.hasRemaining()) {
+                int chunk = Math.min(b.length, src.remaining());
+                src.get(b, 0, chunk);
+                file.write(b, 0, chunk);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return file.getFilePointer();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        file.seek(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return file.length();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        ensureOpen();
+        if (!writable) {
+            throw new NonWritableChannelException();
+        }
+        if (size < file.length()) {
+            long position = file.getFilePointer();
+            file.setLength(size);
+            file.seek(Math.min(position, size));
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            file.close();
+        }
+    }
+
+    private byte[] getBuffer() {
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        return buffer;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
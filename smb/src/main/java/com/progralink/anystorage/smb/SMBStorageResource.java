@@ -1,9 +1,11 @@
 package com.progralink.anystorage.smb;
 
 import com.progralink.anystorage.api.AbstractStorageResource;
+import com.progralink.anystorage.api.ResourceAttributes;
 import com.progralink.anystorage.api.StorageResource;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.options.ByteRange;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
@@ -19,6 +21,7 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
@@ -118,11 +121,66 @@ public class SMBStorageResource extends AbstractStorageResource {
         }
     }
 
+    @Override
+    public ResourceAttributes stat() throws IOException {
+        try {
+            //jcifs caches attributes fetched by exists(), so the getters below do not query the server again
+            SmbResource smbResource = getSmbResource();
+            if (!smbResource.exists()) {
+                return ResourceAttributes.NOT_FOUND;
+            }
+            boolean file = smbResource.isFile();
+            return ResourceAttributes.builder()
+                    .exists(true)
+                    .file(file)
+                    .directory(!file && smbResource.isDirectory())
+                    .size(smbResource.length())
+                    .timeCreated(Instant.ofEpochMilli(smbResource.createTime()))
+                    .timeLastModified(Instant.ofEpochMilli(smbResource.lastModified()))
+                    .timeLastAccess(Instant.ofEpochMilli(smbResource.lastAccess()))
+                    .build();
+        } catch (Exception e) {
+            throw translateException(e);
+        }
+    }
+
     @Override
     protected InputStream openInputStream(Options options) throws Exception {
+        ByteRange range = options.get(ReadOption.Name.RANGE);
+        if (range != null) {
+            //SmbFileInputStream.skip() only moves the file pointer, so nothing before the offset is transferred
+            return range.slice(getSmbResource().openInputStream());
+        }
         return getSmbResource().openInputStream();
     }
 
+    @Override
+    protected SeekableByteChannel openSeekableChannel(boolean writable, Options options) throws Exception {
+        SmbResource smbResource = getSmbResource();
+        if (!writable) {
+            if (!smbResource.exists()) {
+                throw new NotFoundException();
+            }
+            return new SMBSeekableByteChannel(smbResource.openRandomAccess("r"), false);
+        }
+
+        SmbResource parentResource = ((SMBStorageResource) getParent()).getSmbResource();
+        if (!parentResource.exists()) {
+            parentResource.mkdirs();
+        }
+        SMBSeekableByteChannel channel = new SMBSeekableByteChannel(smbResource.openRandomAccess("rw"), true) {
+            @Override
+            public void close() throws IOException {
+                if (isOpen()) {
+                    super.close();
+                    postWrite(options);
+                }
+            }
+        };
+        channel.position(WriteOption.APPEND.isEnabled(options) ? channel.size() : 0);
+        return channel;
+    }
+
     @Override
     protected OutputStream openOutputStream(Options options) throws Exception {
         return new FilterOutputStream(getSmbResource().openOutputStream()) {
@@ -173,6 +231,43 @@ public class SMBStorageResource extends AbstractStorageResource {
         }
     }
 
+    @Override
+    protected boolean copyWithinSession(StorageResource target, Options options) throws Exception {
+        if (!(target instanceof SMBStorageResource)) {
+            return false;
+        }
+        SmbResource targetResource = prepareCopyTarget((SMBStorageResource) target, options);
+        //server-side copy, data does not pass through the client
+        getSmbResource().copyTo(targetResource);
+        applyOptionalTimes(targetResource, options);
+        return true;
+    }
+
+    @Override
+    protected boolean moveWithinSession(StorageResource target, Options options) throws Exception {
+        if (!(target instanceof SMBStorageResource)) {
+            return false;
+        }
+        SmbResource targetResource = prepareCopyTarget((SMBStorageResource) target, options);
+        getSmbResource().renameTo(targetResource, !WriteOption.CREATE_NEW.isEnabled(options));
+        applyOptionalTimes(targetResource, options);
+        return true;
+    }
+
+    private SmbResource prepareCopyTarget(SMBStorageResource target, Options options) throws IOException {
+        if (!exists()) {
+            throw new NotFoundException();
+        }
+        if (WriteOption.CREATE_NEW.isEnabled(options) && target.exists()) {
+            throw new AlreadyExistsException();
+        }
+        SmbResource parentResource = ((SMBStorageResource) target.getParent()).getSmbResource();
+        if (!parentResource.exists()) {
+            parentResource.mkdirs();
+        }
+        return target.getSmbResource();
+    }
+
     protected void postWrite(Options options) throws IOException {
         applyOptionalTimes(getSmbResource(), options);
     }
@@ -3,6 +3,7 @@ package com.progralink.anystorage.smb;
 import com.progralink.anystorage.api.AbstractStorageSession;
 import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
 import jcifs.CIFSContext;
 
@@ -33,7 +34,8 @@ public class SMBStorageSession extends AbstractStorageSession {
                 option == WriteOption.APPEND ||
                 option == WriteOption.CREATE_NEW ||
                 WriteOption.Name.CREATION_TIME.equals(option.getName()) ||
-                WriteOption.Name.LAST_MODIFIED_TIME.equals(option.getName());
+                WriteOption.Name.LAST_MODIFIED_TIME.equals(option.getName()) ||
+                ReadOption.Name.RANGE.equals(option.getName());
     }
 
     @Override
@@ -0,0 +1,108 @@
+package com.progralink.anystorage.sql;
+
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.StorageResourceEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.progralink.anystorage.sql.SQLStorageResource.DESCENDANTS_UPPER_BOUND;
+import static com.progralink.anystorage.sql.SQLStorageResource.SHA256;
+import static com.progralink.anystorage.sql.SQLStorageSession.*;
+
+/**
+ * Lists children page by page with path range queries, jumping over the content of each (virtual) directory.
+ * No statement is kept open between pages.
+ */
+class SQLChildrenIterator implements Iterator<StorageResourceEntry> {
+    static final int PAGE_SIZE = 1000;
+
+    private final SQLStorageResource resource;
+    private final String prefix;
+    private final String upperBound;
+    private final Deque<StorageResourceEntry> page = new ArrayDeque<>();
+    private String from;
+    private boolean fromInclusive;
+    private boolean finished;
+
+    SQLChildrenIterator(SQLStorageResource resource, String continuationToken) throws IOException {
+        this.resource = resource;
+        this.prefix = resource.getLocalPath() + "/";
+        this.upperBound = resource.getLocalPath() + DESCENDANTS_UPPER_BOUND;
+        if (continuationToken == null) {
+            from = prefix;
+            fromInclusive = true;
+        } else if (continuationToken.endsWith("/")) {
+            from = prefix + continuationToken.substring(0, continuationToken.length() - 1) + DESCENDANTS_UPPER_BOUND;
+            fromInclusive = true;
+        } else {
+            from = prefix + continuationToken;
+            fromInclusive = false;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page.isEmpty() && !finished) {
+            try {
+                fetchPage();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return !page.isEmpty();
+    }
+
+    @Override
+    public StorageResourceEntry next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.poll();
+    }
+
+    private void fetchPage() throws IOException {
+        String sql = "SELECT "+COLUMN_PATH+","+COLUMN_SIZE+","+COLUMN_SHA256+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+(fromInclusive ? ">=" : ">")+"? AND "+COLUMN_PATH+"<? ORDER BY "+COLUMN_PATH;
+        try (PreparedStatement stmt = resource.prepareSqlStatement(sql)) {
+            stmt.setMaxRows(PAGE_SIZE);
+            stmt.setString(1, from);
+            stmt.setString(2, upperBound);
+            ResultSet rs = stmt.executeQuery();
+            int rows = 0;
+            while (rs.next()) {
+                rows++;
+                String path = rs.getString(COLUMN_PATH);
+                String name = path.substring(prefix.length());
+                int i = name.indexOf('/');
+                if (i != -1) {
+                    //continue after the whole directory content
+                    name = name.substring(0, i);
+                    page.add(new StorageResourceEntry(name, resource.child(name), ResourceAttributes.builder().directory(true).build()));
+                    from = prefix + name + DESCENDANTS_UPPER_BOUND;
+                    fromInclusive = true;
+                    return;
+                }
+                long size = rs.getLong(COLUMN_SIZE);
+                boolean noSize = rs.wasNull();
+                page.add(new StorageResourceEntry(name, resource.child(name), ResourceAttributes.builder()
+                        .exists(true)
+                        .file(true)
+                        .size(noSize ? -1 : size)
+                        .checksum(SHA256, rs.getBytes(COLUMN_SHA256))
+                        .build()));
+                from = path;
+                fromInclusive = false;
+            }
+            finished = rows < PAGE_SIZE;
+        } catch (SQLException e) {
+            throw resource.translateException(e);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.progralink.anystorage.sql;
 
 import com.progralink.anystorage.api.AbstractStorageResource;
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.ResourceWalker;
 import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
 import com.progralink.anystorage.api.exceptions.NotEmptyDirectoryException;
 import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.exceptions.NotModifiedException;
+import com.progralink.anystorage.api.options.ByteRange;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
@@ -14,20 +19,34 @@ import com.progralink.jinout.streams.input.LengthAwareInputStream;
 import com.progralink.jinout.streams.input.PositionAwareInputStream;
 import com.progralink.jinout.streams.output.PositionAwareOutputStream;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.progralink.anystorage.sql.SQLStorageSession.*;
 
 public class SQLStorageResource extends AbstractStorageResource {
+    //'0' directly follows '/', so all descendants of "p" are in range ("p/", "p0")
+    static final String DESCENDANTS_UPPER_BOUND = "0";
+    private static final int WALK_FETCH_SIZE = 1000;
+    private static final int DELETE_BATCH_SIZE = 1000;
+    static final String SHA256 = "SHA-256";
 
     private String name;
 
@@ -43,12 +62,28 @@ public class SQLStorageResource extends AbstractStorageResource {
 
     @Override
     protected InputStream openInputStream(Options options) throws Exception {
-        try (PreparedStatement stmt = prepareSqlStatement("SELECT "+COLUMN_SIZE+","+COLUMN_DATA+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+        try (PreparedStatement stmt = prepareSqlStatement("SELECT "+COLUMN_SIZE+","+COLUMN_DATA+","+COLUMN_VERSION+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
             stmt.setString(1, getLocalPath());
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
+                String validator = options.get(ReadOption.Name.IF_NONE_MATCH);
+                if (validator != null && validator.equals(toValidator(rs))) {
+                    throw new NotModifiedException();
+                }
                 long size = rs.getLong(COLUMN_SIZE);
                 boolean noSize = rs.wasNull();
+                ByteRange range = options.get(ReadOption.Name.RANGE);
+                if (range != null) {
+                    Blob blob = rs.getBlob(COLUMN_DATA);
+                    if (noSize) {
+                        size = blob.length();
+                    }
+                    long length = range.getLengthWithin(size);
+                    if (length == 0) {
+                        return new ByteArrayInputStream(new byte[0]);
+                    }
+                    return new LengthAwareInputStream(blob.getBinaryStream(range.getOffset() + 1, length), length);
+                }
                 if (noSize) {
                     Blob blob = rs.getBlob(COLUMN_DATA);
                     return blob.getBinaryStream();
@@ -87,6 +122,16 @@ public class SQLStorageResource extends AbstractStorageResource {
 
     @Override
     protected long writeStream(InputStream source, Options options) throws SQLException, IOException {
+        Lock writeLock = getSession().getWriteLock();
+        writeLock.lock();
+        try {
+            return writeStreamLocked(source, options);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long writeStreamLocked(InputStream source, Options options) throws SQLException, IOException {
         String sql;
         boolean createNew = WriteOption.CREATE_NEW.isEnabled(options);
         boolean exists = exists();
@@ -99,17 +144,58 @@ public class SQLStorageResource extends AbstractStorageResource {
             length = IOStreams.getRemainingByteLength(source);
         }
 
-        //TODO: possibility of concurrent insertions - need to be handled, but be aware that source stream will be consumed after first SQL execution
+        //writes of other sessions can still race between exists() and INSERT, a lost INSERT surfaces as AlreadyExistsException
+        //(the source stream is consumed by the first SQL execution, so it cannot be retried as an UPDATE)
         //unfortunately not every SQL database supports UPSERT clause
 
         boolean updateMode = false;
         if (createNew || !exists) {
-            sql = "INSERT INTO "+TABLE_NAME+" ("+COLUMN_PATH+","+COLUMN_PARENT+","+COLUMN_SIZE+","+COLUMN_DATA+") VALUES (?,?,?,?)";
+            sql = "INSERT INTO "+TABLE_NAME+" ("+COLUMN_PATH+","+COLUMN_PARENT+","+COLUMN_SIZE+","+COLUMN_DATA+","+COLUMN_VERSION+","+COLUMN_SHA256+") VALUES (?,?,?,?,?,NULL)";
         } else {
-            sql = "UPDATE "+TABLE_NAME+" SET "+COLUMN_PATH+"=?,"+COLUMN_PARENT+"=?,"+COLUMN_SIZE+"=?,"+COLUMN_DATA+"=? WHERE "+COLUMN_PATH+"=?";
+            sql = "UPDATE "+TABLE_NAME+" SET "+COLUMN_PATH+"=?,"+COLUMN_PARENT+"=?,"+COLUMN_SIZE+"=?,"+COLUMN_DATA+"=?,"+COLUMN_VERSION+"=?,"+COLUMN_SHA256+"=NULL WHERE "+COLUMN_PATH+"=?";
             updateMode = true;
         }
 
+        //the checksum is known only after the database consumed the stream, it is cleared with the old content
+        //and both statements run in one transaction, so the stored checksum is never that of another content
+        MessageDigest messageDigest = newSHA256();
+        source = new DigestInputStream(source, messageDigest);
+        if (length == null) {
+            source = new PositionAwareInputStream(source);
+        }
+
+        Connection connection = getSession().getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            writeContent(sql, updateMode, source, length, messageDigest);
+            if (autoCommit) {
+                connection.commit();
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            if (autoCommit) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+            }
+            throw e;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        if (length == null) {
+            return ((PositionAwareInputStream)source).getPosition();
+        }
+        return length;
+    }
+
+    private void writeContent(String sql, boolean updateMode, InputStream source, Long length, MessageDigest messageDigest) throws SQLException, IOException {
         try (PreparedStatement stmt = prepareSqlStatement(sql)) {
             stmt.setString(1, getLocalPath());
             stmt.setString(2, getParentLocalPath());
@@ -117,12 +203,12 @@ public class SQLStorageResource extends AbstractStorageResource {
                 stmt.setLong(3, length);
                 stmt.setBlob(4, source, length);
             } else {
-                source = new PositionAwareInputStream(source);
                 stmt.setNull(3, Types.BIGINT);
                 stmt.setBlob(4, source);
             }
+            stmt.setLong(5, newVersion());
             if (updateMode) {
-                stmt.setString(5, getLocalPath());
+                stmt.setString(6, getLocalPath());
             }
 
             try {
@@ -135,10 +221,134 @@ public class SQLStorageResource extends AbstractStorageResource {
             }
         }
 
-        if (length == null) {
-            return ((PositionAwareInputStream)source).getPosition();
+        try (PreparedStatement stmt = prepareSqlStatement("UPDATE "+TABLE_NAME+" SET "+COLUMN_SHA256+"=? WHERE "+COLUMN_PATH+"=?")) {
+            stmt.setBytes(1, messageDigest.digest());
+            stmt.setString(2, getLocalPath());
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public Optional<byte[]> getChecksum(String algorithm, ReadOption<?>... options) throws IOException {
+        if (SHA256.equalsIgnoreCase(algorithm)) {
+            try (PreparedStatement stmt = prepareSqlStatement("SELECT "+COLUMN_SHA256+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+                stmt.setString(1, getLocalPath());
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next()) {
+                    throw new NotFoundException();
+                }
+                byte[] checksum = rs.getBytes(COLUMN_SHA256);
+                if (checksum != null) {
+                    return Optional.of(checksum);
+                }
+            } catch (SQLException e) {
+                throw translateException(e);
+            }
+        }
+        return super.getChecksum(algorithm, options);
+    }
+
+    @Override
+    public String getValidator() throws IOException {
+        try (PreparedStatement stmt = prepareSqlStatement("SELECT "+COLUMN_VERSION+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+            stmt.setString(1, getLocalPath());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? toValidator(rs) : null;
+        } catch (SQLException e) {
+            throw translateException(e);
+        }
+    }
+
+    @Override
+    protected void checkModified(Options options) {
+        //checked by the query reading the content
+    }
+
+    private static String toValidator(ResultSet rs) throws SQLException {
+        long version = rs.getLong(COLUMN_VERSION);
+        //rows written before versions were introduced
+        return rs.wasNull() ? null : "version:" + Long.toHexString(version);
+    }
+
+    //random rather than incremented, so that a deleted and recreated row never repeats a version
+    private static long newVersion() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private static MessageDigest newSHA256() {
+        try {
+            return MessageDigest.getInstance(SHA256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+    }
+
+    @Override
+    protected boolean copyWithinSession(StorageResource target, Options options) throws Exception {
+        Lock writeLock = getSession().getWriteLock();
+        writeLock.lock();
+        try {
+            return copyWithinSessionLocked(target, options);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean copyWithinSessionLocked(StorageResource target, Options options) throws Exception {
+        if (!exists()) {
+            throw new NotFoundException();
+        }
+        prepareCopyTarget(target, options);
+        //the blob is copied by the database, not fetched
+        try (PreparedStatement stmt = prepareSqlStatement("INSERT INTO "+TABLE_NAME+" ("+COLUMN_PATH+","+COLUMN_PARENT+","+COLUMN_SIZE+","+COLUMN_DATA+","+COLUMN_SHA256+","+COLUMN_VERSION+") SELECT ?,?,"+COLUMN_SIZE+","+COLUMN_DATA+","+COLUMN_SHA256+",? FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+            stmt.setString(1, target.getLocalPath());
+            stmt.setString(2, target.getParentLocalPath());
+            stmt.setLong(3, newVersion());
+            stmt.setString(4, getLocalPath());
+            if (stmt.executeUpdate() == 0) {
+                throw new NotFoundException();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean moveWithinSession(StorageResource target, Options options) throws Exception {
+        Lock writeLock = getSession().getWriteLock();
+        writeLock.lock();
+        try {
+            return moveWithinSessionLocked(target, options);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean moveWithinSessionLocked(StorageResource target, Options options) throws Exception {
+        if (!exists()) {
+            throw new NotFoundException();
+        }
+        prepareCopyTarget(target, options);
+        try (PreparedStatement stmt = prepareSqlStatement("UPDATE "+TABLE_NAME+" SET "+COLUMN_PATH+"=?,"+COLUMN_PARENT+"=? WHERE "+COLUMN_PATH+"=?")) {
+            stmt.setString(1, target.getLocalPath());
+            stmt.setString(2, target.getParentLocalPath());
+            stmt.setString(3, getLocalPath());
+            if (stmt.executeUpdate() == 0) {
+                throw new NotFoundException();
+            }
+        }
+        return true;
+    }
+
+    private void prepareCopyTarget(StorageResource target, Options options) throws Exception {
+        if (target.exists()) {
+            if (WriteOption.CREATE_NEW.isEnabled(options)) {
+                throw new AlreadyExistsException();
+            }
+            try (PreparedStatement stmt = prepareSqlStatement("DELETE FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+                stmt.setString(1, target.getLocalPath());
+                stmt.executeUpdate();
+            }
         }
-        return length;
     }
 
     @Override
@@ -183,42 +393,58 @@ public class SQLStorageResource extends AbstractStorageResource {
     }
 
     @Override
-    public Collection<String> childrenNames() throws IOException {
-        try (PreparedStatement stmt = getSession().getConnection().prepareStatement("SELECT "+COLUMN_PATH+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PARENT+"=?")) {
-            Collection<String> names = new LinkedList<>();
-            stmt.setString(1, getLocalPath());
+    public ResourceAttributes stat() throws IOException {
+        //exact path sorts before its descendants, so the first row tells if it is a file and the second one if it is a directory
+        String thisPath = getLocalPath();
+        try (PreparedStatement stmt = prepareSqlStatement("SELECT "+COLUMN_PATH+","+COLUMN_SIZE+","+COLUMN_SHA256+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=? OR ("+COLUMN_PATH+">? AND "+COLUMN_PATH+"<?) ORDER BY "+COLUMN_PATH)) {
+            stmt.setMaxRows(2);
+            stmt.setString(1, thisPath);
+            stmt.setString(2, thisPath + "/");
+            stmt.setString(3, thisPath + DESCENDANTS_UPPER_BOUND);
             ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                String childPath = rs.getString(COLUMN_PATH);
-                String childName = childPath.substring(childPath.lastIndexOf('/') + 1);
-                names.add(childName);
+            if (!rs.next()) {
+                return ResourceAttributes.NOT_FOUND;
             }
-
-            if (names.isEmpty()) {
-                //paths in-between (virtual directories) were not reflected
-                //TODO: inefficient, better refactor it
-                names = new LinkedHashSet<>();
-                String thisPath = getLocalPath();
-                rs = getSession().getConnection().createStatement().executeQuery("SELECT DISTINCT "+COLUMN_PARENT+" FROM "+TABLE_NAME);
-                while (rs.next()) {
-                    String thatPath = rs.getString(COLUMN_PARENT);
-                    if (thatPath.startsWith(thisPath + "/")) {
-                        String childName = thatPath.substring(thisPath.length() + 1);
-                        int i = childName.indexOf('/');
-                        if (i > -1) {
-                            childName = childName.substring(0, i);
-                        }
-                        names.add(childName);
-                    }
-                }
+            if (!thisPath.equals(rs.getString(COLUMN_PATH))) {
+                return ResourceAttributes.builder().directory(true).build();
             }
-
-            return names;
+            long size = rs.getLong(COLUMN_SIZE);
+            boolean noSize = rs.wasNull();
+            byte[] checksum = rs.getBytes(COLUMN_SHA256);
+            boolean directory = rs.next();
+            return ResourceAttributes.builder()
+                    .exists(true)
+                    .file(true)
+                    .directory(directory)
+                    .size(noSize ? getSize() : size)
+                    .checksum(SHA256, checksum)
+                    .build();
         } catch (SQLException e) {
             throw translateException(e);
         }
     }
 
+    @Override
+    public Stream<StorageResource> children() throws IOException {
+        return ResourceWalker.distinctNames(childrenWithAttributes()).map(StorageResourceEntry::getResource);
+    }
+
+    @Override
+    public Collection<String> childrenNames() throws IOException {
+        return ResourceWalker.distinctNames(childrenWithAttributes()).map(StorageResourceEntry::getName).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes() throws IOException {
+        return childrenWithAttributes(null);
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> childrenWithAttributes(String continuationToken) throws IOException {
+        SQLChildrenIterator iterator = new SQLChildrenIterator(this, continuationToken);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     @Override
     public StorageResource child(String name) {
         return new SQLStorageResource(this, name);
@@ -226,20 +452,167 @@ public class SQLStorageResource extends AbstractStorageResource {
 
     @Override
     public boolean delete(DeleteOption<?>... options) throws IOException {
-        if (hasChildren()) {
-            throw new NotEmptyDirectoryException();
+        Lock writeLock = getSession().getWriteLock();
+        writeLock.lock();
+        try {
+            if (hasChildren()) {
+                throw new NotEmptyDirectoryException();
+            }
+
+            try (PreparedStatement stmt = prepareSqlStatement("DELETE FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+                stmt.setString(1, getLocalPath());
+                return stmt.executeUpdate() > 0;
+            } catch (SQLException e) {
+                throw translateException(e);
+            }
+        } finally {
+            writeLock.unlock();
         }
+    }
 
-        try (PreparedStatement stmt = prepareSqlStatement("DELETE FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
-            stmt.setString(1, getLocalPath());
+    @Override
+    public boolean deleteDeep(boolean includeSelf, DeleteOption<?>... options) throws IOException {
+        Lock writeLock = getSession().getWriteLock();
+        writeLock.lock();
+        try {
+            return deleteDeepLocked(includeSelf);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean deleteDeepLocked(boolean includeSelf) throws IOException {
+        //a single range delete over the primary key
+        String thisPath = getLocalPath();
+        String sql = "DELETE FROM "+TABLE_NAME+" WHERE ("+COLUMN_PATH+">? AND "+COLUMN_PATH+"<?)";
+        if (includeSelf) {
+            sql += " OR "+COLUMN_PATH+"=?";
+        }
+        try (PreparedStatement stmt = prepareSqlStatement(sql)) {
+            stmt.setString(1, thisPath + "/");
+            stmt.setString(2, thisPath + DESCENDANTS_UPPER_BOUND);
+            if (includeSelf) {
+                stmt.setString(3, thisPath);
+            }
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             throw translateException(e);
         }
     }
 
+    @Override
+    public long deleteAll(Collection<String> subpaths, DeleteOption<?>... options) throws IOException {
+        Lock writeLock = getSession().getWriteLock();
+        writeLock.lock();
+        try {
+            return deleteAllLocked(subpaths);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long deleteAllLocked(Collection<String> subpaths) throws IOException {
+        long deleted = 0;
+        try (PreparedStatement stmt = prepareSqlStatement("DELETE FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+"=?")) {
+            int batchSize = 0;
+            for (String subpath : subpaths) {
+                stmt.setString(1, resolve(subpath).getLocalPath());
+                stmt.addBatch();
+                if (++batchSize == DELETE_BATCH_SIZE) {
+                    deleted += countUpdated(stmt.executeBatch());
+                    batchSize = 0;
+                }
+            }
+            if (batchSize > 0) {
+                deleted += countUpdated(stmt.executeBatch());
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw translateException(e);
+        }
+    }
+
+    private static long countUpdated(int[] updateCounts) {
+        long count = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Stream<StorageResourceEntry> walk(int maxDepth, Predicate<StorageResourceEntry> filter) throws IOException {
+        String prefix = getLocalPath() + "/";
+        PreparedStatement stmt = null;
+        try {
+            //a single range scan over the primary key instead of a query per directory level
+            stmt = prepareSqlStatement("SELECT "+COLUMN_PATH+","+COLUMN_SIZE+","+COLUMN_SHA256+" FROM "+TABLE_NAME+" WHERE "+COLUMN_PATH+">=? AND "+COLUMN_PATH+"<? ORDER BY "+COLUMN_PATH);
+            stmt.setFetchSize(WALK_FETCH_SIZE);
+            stmt.setString(1, prefix);
+            stmt.setString(2, getLocalPath() + DESCENDANTS_UPPER_BOUND);
+            ResultSet rs = stmt.executeQuery();
+            Iterator<Map.Entry<String, ResourceAttributes>> rows = new Iterator<Map.Entry<String, ResourceAttributes>>() {
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        try {
+                            hasNext = rs.next();
+                        } catch (SQLException e) {
+                            throw new UncheckedIOException(translateException(e));
+                        }
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public Map.Entry<String, ResourceAttributes> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    try {
+                        long size = rs.getLong(COLUMN_SIZE);
+                        boolean noSize = rs.wasNull();
+                        return new AbstractMap.SimpleImmutableEntry<>(rs.getString(COLUMN_PATH).substring(prefix.length()), ResourceAttributes.builder()
+                                .exists(true)
+                                .file(true)
+                                .size(noSize ? -1 : size)
+                                .checksum(SHA256, rs.getBytes(COLUMN_SHA256))
+                                .build());
+                    } catch (SQLException e) {
+                        throw new UncheckedIOException(translateException(e));
+                    }
+                }
+            };
+
+            PreparedStatement statement = stmt;
+            Stream<Map.Entry<String, ResourceAttributes>> files = StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        try {
+                            statement.close();
+                        } catch (SQLException e) {
+                            throw new UncheckedIOException(translateException(e));
+                        }
+                    });
+            return ResourceWalker.fromSortedKeys(this, files, maxDepth).filter(filter);
+        } catch (SQLException e) {
+            try {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            } catch (SQLException ce) {
+                e.addSuppressed(ce);
+            }
+            throw translateException(e);
+        }
+    }
+
     protected PreparedStatement prepareSqlStatement(String sql) throws SQLException {
-        return getSession().getConnection().prepareStatement(sql);
+        return SQLTracing.trace(getSession().getConnection().prepareStatement(sql), this, sql);
     }
 
     @Override
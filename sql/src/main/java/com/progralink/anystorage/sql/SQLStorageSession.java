@@ -3,12 +3,15 @@ package com.progralink.anystorage.sql;
 import com.progralink.anystorage.api.AbstractStorageSession;
 import com.progralink.anystorage.api.options.Option;
 import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class SQLStorageSession extends AbstractStorageSession {
     static final String TABLE_NAME = "storage";
@@ -16,15 +19,22 @@ public class SQLStorageSession extends AbstractStorageSession {
     static final String COLUMN_PARENT = "parent";
     static final String COLUMN_SIZE = "size";
     static final String COLUMN_DATA = "data";
+    static final String COLUMN_SHA256 = "sha256";
+    static final String COLUMN_VERSION = "version";
 
     private Connection connection;
+    //serializes check-then-write sequences of threads sharing the connection
+    private final Lock writeLock = new ReentrantLock();
 
     public SQLStorageSession(String name, Options options, Connection connection) throws IOException {
         super(name, options);
         this.connection = connection;
         this.rootResource = new SQLStorageResource(this);
 
-        executeSQL("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" + COLUMN_PATH + " VARCHAR(32767) PRIMARY KEY, " + COLUMN_PARENT + " VARCHAR(32767), " + COLUMN_SIZE + " LONG, " + COLUMN_DATA + " BLOB)");
+        executeSQL("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" + COLUMN_PATH + " VARCHAR(32767) PRIMARY KEY, " + COLUMN_PARENT + " VARCHAR(32767), " + COLUMN_SIZE + " LONG, " + COLUMN_DATA + " BLOB, " + COLUMN_SHA256 + " VARBINARY(32), " + COLUMN_VERSION + " BIGINT)");
+        //tables created by older versions
+        executeSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN IF NOT EXISTS " + COLUMN_SHA256 + " VARBINARY(32)");
+        executeSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN IF NOT EXISTS " + COLUMN_VERSION + " BIGINT");
         executeSQL("CREATE INDEX IF NOT EXISTS " + COLUMN_PARENT + "_idx ON " + TABLE_NAME + "(" + COLUMN_PARENT + ")");
     }
 
@@ -42,6 +52,10 @@ public class SQLStorageSession extends AbstractStorageSession {
         return connection;
     }
 
+    Lock getWriteLock() {
+        return writeLock;
+    }
+
     @Override
     public boolean isDirectoryless() {
         return true;
@@ -49,6 +63,10 @@ public class SQLStorageSession extends AbstractStorageSession {
 
     @Override
     public boolean isSupported(Option<?> option) {
-        return option == WriteOption.ATOMIC || option == WriteOption.CREATE_NEW || option.getName().equals(WriteOption.Name.CONTENT_LENGTH);
+        return option == WriteOption.ATOMIC ||
+                option == WriteOption.CREATE_NEW ||
+                option.getName().equals(WriteOption.Name.CONTENT_LENGTH) ||
+                option.getName().equals(ReadOption.Name.RANGE) ||
+                option.getName().equals(ReadOption.Name.IF_NONE_MATCH);
     }
 }
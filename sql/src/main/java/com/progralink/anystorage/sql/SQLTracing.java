@@ -0,0 +1,49 @@
+package com.progralink.anystorage.sql;
+
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.trace.StorageSpan;
+import com.progralink.anystorage.api.trace.StorageTracing;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.Locale;
+
+/**
+ * Traces every execution of a statement as an {@code "SQL <verb>"} operation, only wrapped while tracing is enabled.
+ */
+class SQLTracing {
+    private SQLTracing() { }
+
+    static PreparedStatement trace(PreparedStatement statement, StorageResource resource, String sql) {
+        if (!StorageTracing.isEnabled()) {
+            return statement;
+        }
+        String trimmed = sql.trim();
+        int i = trimmed.indexOf(' ');
+        String operation = "SQL " + (i != -1 ? trimmed.substring(0, i) : trimmed).toUpperCase(Locale.ROOT);
+        return (PreparedStatement) Proxy.newProxyInstance(SQLTracing.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            StorageSpan span = StorageTracing.begin(operation, resource);
+            try {
+                Object result = invoke(statement, method, args);
+                span.end(null);
+                return result;
+            } catch (Throwable e) {
+                span.end(e);
+                throw e;
+            }
+        });
+    }
+
+    private static Object invoke(PreparedStatement statement, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
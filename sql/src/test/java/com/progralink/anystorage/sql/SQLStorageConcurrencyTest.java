@@ -0,0 +1,18 @@
+package com.progralink.anystorage.sql;
+
+import com.progralink.anystorage.api.StorageConnector;
+import com.progralink.anystorage.testsuite.AbstractStorageConcurrencyTestSuite;
+
+import java.io.IOException;
+
+public class SQLStorageConcurrencyTest extends AbstractStorageConcurrencyTestSuite {
+    @Override
+    protected String getDefaultConnectionString() throws IOException {
+        return "jdbc:h2:mem:storage-concurrency-test-db"; //test another DB with env/property com.progralink.anystorage.sql.SQLStorageConcurrencyTest.URL
+    }
+
+    @Override
+    protected StorageConnector provideConnector() {
+        return new SQLStorageConnector();
+    }
+}
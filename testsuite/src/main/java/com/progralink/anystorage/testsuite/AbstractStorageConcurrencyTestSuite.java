@@ -0,0 +1,399 @@
+package com.progralink.anystorage.testsuite;
+
+import com.progralink.anystorage.api.StorageConnector;
+import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
+import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.metrics.LatencyHistogram;
+import com.progralink.anystorage.api.options.Options;
+import com.progralink.anystorage.api.options.WriteOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers one session from many threads with mixed writes, reads, listings and deletes, checks the invariants
+ * every backend has to keep and prints throughput and latency percentiles for each thread count.
+ * Thread counts and operations per thread can be set with {@code <test class>.THREADS} (e.g. {@code 1,4,16})
+ * and {@code <test class>.OPERATIONS} properties/env variables.
+ */
+public abstract class AbstractStorageConcurrencyTestSuite {
+    private static final int FILES_PER_THREAD = 8;
+    private static final int MAX_PAYLOAD_SIZE = 4096;
+    private static final String MARKER_NAME = "marker";
+    private static final String LOG_NAME = "log";
+    private static final String[] OPERATIONS = {"write", "createNew", "append", "read", "readOther", "list", "listOther", "delete"};
+
+    protected StorageConnector connector;
+    protected StorageSession session;
+    protected static String connectionString = null;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        session = startSession();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (session != null) {
+            cleanup(session);
+        }
+    }
+
+    protected abstract String getDefaultConnectionString() throws IOException;
+
+    protected synchronized String getConnectionString() throws IOException {
+        String optionName = this.getClass().getName() + ".URL";
+        if (connectionString == null) {
+            connectionString = getConnectionString(optionName);
+            if (connectionString == null || connectionString.isEmpty()) {
+                connectionString = getDefaultConnectionString();
+                if (connectionString == null || connectionString.isEmpty()) {
+                    System.err.println(optionName + " not specified!");
+                    connectionString = "";
+                }
+            }
+        }
+        return connectionString;
+    }
+
+    protected boolean isTestSkipped() throws IOException {
+        String cstr = getConnectionString();
+        return cstr == null || cstr.isEmpty();
+    }
+
+    protected String getConnectionString(String optionName) {
+        Options options = Options.DEFAULTS;
+        return options.getString(optionName);
+    }
+
+    protected abstract StorageConnector provideConnector();
+
+    protected synchronized StorageSession startSession() throws IOException {
+        if (connector == null) {
+            connector = provideConnector();
+        }
+        return connector.connect(getConnectionString());
+    }
+
+    protected void cleanup(StorageSession session) throws IOException {
+        session.close();
+    }
+
+    protected int[] getThreadCounts() {
+        String threads = Options.DEFAULTS.getString(this.getClass().getName() + ".THREADS");
+        if (threads == null || threads.isEmpty()) {
+            return new int[] {1, 4, 16};
+        }
+        return Arrays.stream(threads.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    protected int getOperationsPerThread() {
+        String operations = Options.DEFAULTS.getString(this.getClass().getName() + ".OPERATIONS");
+        return operations == null || operations.isEmpty() ? 250 : Integer.parseInt(operations.trim());
+    }
+
+    private int getMaxThreads() {
+        return Arrays.stream(getThreadCounts()).max().orElse(1);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testConcurrentCreateNewHasSingleWinner() throws Exception {
+        StorageResource root = session.getResource("/concurrency-create-new");
+        root.deleteDeep(true);
+        int fileCount = 20;
+        AtomicIntegerArray winners = new AtomicIntegerArray(fileCount);
+        AtomicReferenceArray<byte[]> winnerContents = new AtomicReferenceArray<>(fileCount);
+        WriteOption<?>[] options = atomicIfSupported(WriteOption.CREATE_NEW);
+
+        runConcurrently(getMaxThreads(), thread -> {
+            for (int i = 0; i < fileCount; i++) {
+                StorageResource resource = root.child("file" + i);
+                byte[] content = payload(resource, thread, 16 + thread);
+                try {
+                    resource.write(content, options);
+                    winners.incrementAndGet(i);
+                    winnerContents.set(i, content);
+                } catch (AlreadyExistsException ignore) {
+                    //another thread was first
+                }
+            }
+        });
+
+        for (int i = 0; i < fileCount; i++) {
+            assertEquals(1, winners.get(i), "CREATE_NEW winners of file" + i);
+            assertArrayEquals(winnerContents.get(i), root.child("file" + i).readFully(), "content of file" + i);
+        }
+        root.deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testConcurrentAppendsAreNotLost() throws Exception {
+        if (!session.isSupported(WriteOption.APPEND)) {
+            return;
+        }
+        StorageResource resource = session.getResource("/concurrency-append/log");
+        resource.getParent().deleteDeep(true);
+        int threads = getMaxThreads();
+        int records = Math.max(10, getOperationsPerThread() / 5);
+
+        runConcurrently(threads, thread -> {
+            for (int i = 0; i < records; i++) {
+                resource.write(String.format("%04d:%06d\n", thread, i).getBytes(UTF_8), WriteOption.APPEND);
+            }
+        });
+
+        String[] lines = new String(resource.readFully(), UTF_8).split("\n");
+        assertEquals(threads * records, lines.length, "appended records");
+        int[] nextRecord = new int[threads];
+        for (String line : lines) {
+            String[] parts = line.split(":");
+            assertEquals(2, parts.length, "torn record: " + line);
+            int thread = Integer.parseInt(parts[0]);
+            assertEquals(nextRecord[thread]++, Integer.parseInt(parts[1]), "record order of thread " + thread);
+        }
+        resource.getParent().deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testAtomicOverwriteIsNeverSeenPartially() throws Exception {
+        if (!session.isSupported(WriteOption.ATOMIC)) {
+            return;
+        }
+        StorageResource resource = session.getResource("/concurrency-atomic/target");
+        resource.getParent().deleteDeep(true);
+        resource.write(payload(resource, 0, MAX_PAYLOAD_SIZE), WriteOption.ATOMIC);
+        int threads = Math.max(2, getMaxThreads());
+        int operations = getOperationsPerThread();
+
+        runConcurrently(threads, thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < operations; i++) {
+                if (thread % 2 == 0) {
+                    resource.write(payload(resource, thread * operations + i, 1 + random.nextInt(MAX_PAYLOAD_SIZE)), WriteOption.ATOMIC);
+                } else {
+                    verifyPayload(resource, resource.readFully());
+                }
+            }
+        });
+        resource.getParent().deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testMixedWorkloadScaling() throws Exception {
+        StringBuilder report = new StringBuilder();
+        for (int threads : getThreadCounts()) {
+            report.append(runMixedWorkload(threads, getOperationsPerThread())).append('\n');
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * Every thread owns a directory: it checks its own files against a local model, while reads and listings
+     * of the other threads' directories must only return complete content or not found.
+     */
+    private String runMixedWorkload(int threads, int operations) throws Exception {
+        StorageResource root = session.getResource("/concurrency-mixed-" + threads);
+        root.deleteDeep(true);
+        boolean atomic = session.isSupported(WriteOption.ATOMIC);
+        boolean append = session.isSupported(WriteOption.APPEND);
+        Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        for (int thread = 0; thread < threads; thread++) {
+            StorageResource marker = root.child("t" + thread).child(MARKER_NAME);
+            marker.write(payload(marker, 0, 16));
+        }
+
+        long start = System.nanoTime();
+        runConcurrently(threads, thread -> {
+            Random random = new Random(thread);
+            StorageResource directory = root.child("t" + thread);
+            Map<String, byte[]> model = new HashMap<>();
+            model.put(MARKER_NAME, directory.child(MARKER_NAME).readFully());
+            int appended = 0;
+
+            for (int i = 0; i < operations; i++) {
+                String name = "f" + random.nextInt(FILES_PER_THREAD);
+                StorageResource resource = directory.child(name);
+                String operation = OPERATIONS[random.nextInt(OPERATIONS.length)];
+                long operationStart = System.nanoTime();
+                switch (operation) {
+                    case "write": {
+                        byte[] content = payload(resource, i, 1 + random.nextInt(MAX_PAYLOAD_SIZE));
+                        resource.write(content, atomicIfSupported());
+                        model.put(name, content);
+                        break;
+                    }
+                    case "createNew": {
+                        byte[] content = payload(resource, i, 1 + random.nextInt(MAX_PAYLOAD_SIZE));
+                        try {
+                            resource.write(content, atomicIfSupported(WriteOption.CREATE_NEW));
+                            assertFalse(model.containsKey(name), "CREATE_NEW overwrote " + resource);
+                            model.put(name, content);
+                        } catch (AlreadyExistsException e) {
+                            assertTrue(model.containsKey(name), "CREATE_NEW refused to create " + resource);
+                        }
+                        break;
+                    }
+                    case "append": {
+                        if (append) {
+                            directory.child(LOG_NAME).write(String.format("%06d\n", appended++).getBytes(UTF_8), WriteOption.APPEND);
+                        }
+                        break;
+                    }
+                    case "read": {
+                        byte[] expected = model.get(name);
+                        if (expected != null) {
+                            assertArrayEquals(expected, resource.readFully(), "content of " + resource);
+                        } else {
+                            assertFalse(resource.exists(), "deleted " + resource + " exists");
+                        }
+                        break;
+                    }
+                    case "readOther": {
+                        StorageResource other = root.child("t" + random.nextInt(threads)).child(name);
+                        try {
+                            byte[] content = other.readFully();
+                            if (atomic) {
+                                verifyPayload(other, content);
+                            }
+                        } catch (NotFoundException ignore) {
+                            //deleted or not created yet
+                        }
+                        break;
+                    }
+                    case "list": {
+                        Set<String> expected = new HashSet<>(model.keySet());
+                        if (appended > 0) {
+                            expected.add(LOG_NAME);
+                        }
+                        assertEquals(expected, new HashSet<>(directory.childrenNames()), "children of " + directory);
+                        break;
+                    }
+                    case "listOther": {
+                        root.child("t" + random.nextInt(threads)).childrenNames();
+                        break;
+                    }
+                    case "delete": {
+                        assertEquals(model.remove(name) != null, resource.delete(), "delete of " + resource);
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException(operation);
+                }
+                latencies.get(operation).record(System.nanoTime() - operationStart);
+            }
+
+            if (append && appended > 0) {
+                String[] lines = new String(directory.child(LOG_NAME).readFully(), UTF_8).split("\n");
+                assertEquals(appended, lines.length, "appended records of " + directory);
+            }
+            for (Map.Entry<String, byte[]> entry : model.entrySet()) {
+                assertArrayEquals(entry.getValue(), directory.child(entry.getKey()).readFully(), "final content of " + entry.getKey());
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        root.deleteDeep(true);
+
+        long total = (long) threads * operations;
+        StringBuilder report = new StringBuilder(String.format("%s threads=%d operations=%d %.1f ops/s",
+                getClass().getSimpleName(), threads, total, total * 1e9 / elapsed));
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() > 0) {
+                report.append(String.format(" | %s p50=%dus p99=%dus max=%dus", entry.getKey(),
+                        histogram.getValueAtPercentile(50) / 1000, histogram.getValueAtPercentile(99) / 1000, histogram.getMax() / 1000));
+            }
+        }
+        return report.toString();
+    }
+
+    private WriteOption<?>[] atomicIfSupported(WriteOption<?>... options) {
+        if (!session.isSupported(WriteOption.ATOMIC)) {
+            return options;
+        }
+        WriteOption<?>[] result = Arrays.copyOf(options, options.length + 1);
+        result[options.length] = WriteOption.ATOMIC;
+        return result;
+    }
+
+    //header with the path and a sequence number, followed by a filler derived from both, so any read can be verified
+    private static byte[] payload(StorageResource resource, int sequence, int size) throws IOException {
+        byte[] header = (resource.getLocalPath() + "\n" + sequence + "\n").getBytes(UTF_8);
+        byte[] content = Arrays.copyOf(header, Math.max(size, header.length));
+        Arrays.fill(content, header.length, content.length, (byte) sequence);
+        return content;
+    }
+
+    private static void verifyPayload(StorageResource resource, byte[] content) throws IOException {
+        String text = new String(content, UTF_8);
+        String prefix = resource.getLocalPath() + "\n";
+        assertTrue(text.startsWith(prefix), "foreign or torn content of " + resource);
+        int end = text.indexOf('\n', prefix.length());
+        assertTrue(end > 0, "torn content of " + resource);
+        int sequence = Integer.parseInt(text.substring(prefix.length(), end));
+        int headerLength = (prefix + sequence + "\n").getBytes(UTF_8).length;
+        for (int i = headerLength; i < content.length; i++) {
+            assertEquals((byte) sequence, content[i], "torn content of " + resource);
+        }
+    }
+
+    private static void runConcurrently(int threadCount, Worker worker) throws InterruptedException {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                try {
+                    startSignal.await();
+                    worker.run(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "storage-concurrency-" + i));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError(failures.size() + " of " + threadCount + " threads failed", failures.peek());
+            failures.stream().skip(1).forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+}
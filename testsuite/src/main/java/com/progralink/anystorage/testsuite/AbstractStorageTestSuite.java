@@ -1,25 +1,70 @@
 package com.progralink.anystorage.testsuite;
 
+import com.progralink.anystorage.api.ResourceAttributes;
+import com.progralink.anystorage.api.ResourcePath;
 import com.progralink.anystorage.api.StorageConnector;
+import com.progralink.anystorage.api.StorageConnectorProvider;
+import com.progralink.anystorage.api.StorageConnectors;
 import com.progralink.anystorage.api.StorageResource;
+import com.progralink.anystorage.api.StorageResourceEntry;
 import com.progralink.anystorage.api.StorageSession;
+import com.progralink.anystorage.api.async.AsyncStorageSession;
+import com.progralink.anystorage.api.cache.CachingStorageSession;
+import com.progralink.anystorage.api.delegate.DelegatingStorageResource;
+import com.progralink.anystorage.api.delegate.DelegatingStorageSession;
 import com.progralink.anystorage.api.exceptions.AlreadyExistsException;
+import com.progralink.anystorage.api.exceptions.NotFoundException;
+import com.progralink.anystorage.api.exceptions.NotModifiedException;
+import com.progralink.anystorage.api.metrics.MetricsStorageSession;
+import com.progralink.anystorage.api.metrics.StorageMetrics;
 import com.progralink.anystorage.api.options.DeleteOption;
 import com.progralink.anystorage.api.options.Options;
 import com.progralink.anystorage.api.options.ReadOption;
 import com.progralink.anystorage.api.options.WriteOption;
+import com.progralink.anystorage.api.pool.StorageSessionPool;
+import com.progralink.anystorage.api.transfer.StorageSync;
+import com.progralink.anystorage.api.transfer.StorageTransfer;
+import com.progralink.anystorage.api.transfer.SyncResult;
+import com.progralink.anystorage.api.transfer.TransferProgress;
+import com.progralink.jinout.streams.IOStreams;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIf;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
@@ -130,6 +175,656 @@ public abstract class AbstractStorageTestSuite {
         }
     }
 
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testRangeRead() throws IOException {
+        StorageResource resource = session.getResource("/range/digits.txt");
+        resource.write("0123456789".getBytes(UTF_8));
+
+        assertEquals("234", new String(resource.readFully(ReadOption.ofRange(2, 3)), UTF_8));
+        assertEquals("789", new String(resource.readFully(ReadOption.ofOffset(7)), UTF_8));
+        assertEquals("89", new String(resource.readFully(ReadOption.ofRange(8, 10)), UTF_8));
+        assertEquals("", new String(resource.readFully(ReadOption.ofRange(3, 0)), UTF_8));
+        assertEquals("", new String(resource.readFully(ReadOption.ofOffset(20)), UTF_8));
+        try (InputStream inputStream = resource.openRead(ReadOption.ofRange(5, 2))) {
+            assertEquals("56", new String(IOStreams.readFully(inputStream), UTF_8));
+        }
+
+        session.getResource("/range").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testSeekableChannel() throws IOException {
+        StorageResource resource = session.getResource("/channel/digits.txt");
+        resource.write("0123456789".getBytes(UTF_8));
+
+        try (SeekableByteChannel channel = resource.openChannel()) {
+            assertEquals(10, channel.size());
+            ByteBuffer buffer = ByteBuffer.allocate(3);
+            channel.position(5);
+            assertEquals(3, channel.read(buffer));
+            assertEquals("567", new String(buffer.array(), UTF_8));
+            assertEquals(8, channel.position());
+
+            buffer = ByteBuffer.allocate(2);
+            channel.position(1).read(buffer);
+            assertEquals("12", new String(buffer.array(), UTF_8));
+
+            channel.position(10);
+            assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+
+        SeekableByteChannel writableChannel;
+        try {
+            writableChannel = resource.openChannel(true);
+        } catch (UnsupportedOperationException e) {
+            writableChannel = null;
+        }
+        if (writableChannel != null) {
+            try (SeekableByteChannel channel = writableChannel) {
+                channel.position(2);
+                channel.write(ByteBuffer.wrap("AB".getBytes(UTF_8)));
+            }
+            assertEquals("01AB456789", new String(resource.readFully(), UTF_8));
+        }
+
+        session.getResource("/channel").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testAsyncOperations() throws Exception {
+        AsyncStorageSession async = session.async();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            writes.add(async.getResource("/async/file" + i).write(("content " + i).getBytes(UTF_8)));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get();
+
+        assertEquals("content 3", new String(async.getResource("/async/file3").readFully().get(), UTF_8));
+        assertEquals(9L, (long) async.getResource("/async/file5").getSize().get());
+        assertTrue(async.getResource("/async/file7").exists().get());
+        assertFalse(async.getResource("/async/missing").exists().get());
+        assertEquals(10, async.getResource("/async").childrenNames().get().size());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> async.getResource("/async/missing").readFully().get());
+        assertTrue(e.getCause() instanceof NotFoundException);
+
+        assertTrue(session.getResource("/async").async().deleteDeep(false).get());
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testStat() throws IOException {
+        session.getResource("/stat/dir/file.txt").write("Hello!".getBytes(UTF_8));
+
+        ResourceAttributes file = session.getResource("/stat/dir/file.txt").stat();
+        assertTrue(file.exists());
+        assertTrue(file.isFile());
+        assertFalse(file.isDirectory());
+        assertEquals(6, file.getSize());
+
+        ResourceAttributes directory = session.getResource("/stat/dir").stat();
+        assertTrue(directory.isDirectory());
+        assertFalse(directory.isFile());
+
+        ResourceAttributes missing = session.getResource("/stat/missing").stat();
+        assertFalse(missing.exists());
+        assertFalse(missing.isFile());
+        assertFalse(missing.isDirectory());
+
+        session.getResource("/stat").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testChildrenWithAttributes() throws IOException {
+        session.getResource("/listing/a.txt").write("Hello!".getBytes(UTF_8));
+        session.getResource("/listing/b.txt").write("Hi".getBytes(UTF_8));
+        session.getResource("/listing/sub/c.txt").write("Hey".getBytes(UTF_8));
+
+        Map<String, ResourceAttributes> children = new HashMap<>();
+        try (Stream<StorageResourceEntry> entries = session.getResource("/listing").childrenWithAttributes()) {
+            entries.forEach(entry -> children.put(entry.getName(), entry.getAttributes()));
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList("a.txt", "b.txt", "sub")), children.keySet());
+        assertTrue(children.get("a.txt").isFile());
+        assertEquals(6, children.get("a.txt").getSize());
+        assertEquals(2, children.get("b.txt").getSize());
+        assertTrue(children.get("sub").isDirectory());
+        assertFalse(children.get("sub").isFile());
+
+        session.getResource("/listing").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testChildrenContinuation() throws IOException {
+        for (String name : Arrays.asList("a.txt", "b/1.txt", "b/2/3.txt", "c.txt", "d/4.txt", "e.txt")) {
+            session.getResource("/paged/" + name).write(name.getBytes(UTF_8));
+        }
+        StorageResource root = session.getResource("/paged");
+
+        List<StorageResourceEntry> all;
+        try (Stream<StorageResourceEntry> entries = root.childrenWithAttributes(null)) {
+            all = entries.collect(Collectors.toList());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("a.txt", "b", "c.txt", "d", "e.txt")), all.stream().map(StorageResourceEntry::getName).collect(Collectors.toSet()));
+        assertEquals(5, all.size());
+
+        for (int i = 0; i < all.size(); i++) {
+            List<String> expected = all.subList(i + 1, all.size()).stream().map(StorageResourceEntry::getName).collect(Collectors.toList());
+            try (Stream<StorageResourceEntry> entries = root.childrenWithAttributes(all.get(i).getContinuationToken())) {
+                assertEquals(expected, entries.map(StorageResourceEntry::getName).collect(Collectors.toList()));
+            }
+        }
+
+        root.deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testResolvePaths() throws IOException {
+        StorageResource resource = session.getResource("/paths/a/b");
+        assertEquals("/paths/a/b", resource.getLocalPath());
+        assertEquals("/paths/a/b", resource.getResourcePath().toString());
+        assertEquals(3, resource.getResourcePath().getDepth());
+        assertEquals("/paths/a/c/d", resource.resolve("../c\\d").getLocalPath());
+        assertEquals("/x/y", resource.resolve("/x//y/").getLocalPath());
+        assertEquals(ResourcePath.parse("/paths/a/c/d"), resource.resolve("../c/d").getResourcePath());
+        assertTrue(resource.getResourcePath().startsWith(ResourcePath.parse("paths/a")));
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testBulkDelete() throws IOException {
+        StorageResource root = session.getResource("/bulk");
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            String name = "dir" + (i % 3) + "/file" + i + ".txt";
+            root.resolve(name).write(new byte[] { (byte) i });
+            names.add(name);
+        }
+        session.getResource("/bulk-sibling.txt").write("keep".getBytes(UTF_8));
+
+        assertEquals(2, root.deleteAll(Arrays.asList("dir0/file0.txt", "dir1/file1.txt", "missing.txt")));
+        assertFalse(root.resolve("dir0/file0.txt").exists());
+        assertTrue(root.resolve("dir0/file3.txt").exists());
+
+        assertTrue(root.deleteDeep(false));
+        assertFalse(root.hasChildren());
+        for (String name : names) {
+            assertFalse(root.resolve(name).exists());
+        }
+        assertTrue(session.getResource("/bulk-sibling.txt").exists());
+
+        session.getResource("/bulk-sibling.txt").delete();
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testCopyAndMove() throws IOException {
+        StorageResource source = session.getResource("/copy/source.txt");
+        source.write("Copy me".getBytes(UTF_8));
+
+        StorageResource copy = session.getResource("/copy/sub/copy.txt");
+        source.copyTo(copy);
+        assertEquals("Copy me", new String(copy.readFully(), UTF_8));
+        assertTrue(source.exists());
+        assertThrows(AlreadyExistsException.class, () -> source.copyTo(copy, WriteOption.CREATE_NEW));
+
+        StorageResource moved = session.getResource("/copy/moved.txt");
+        copy.moveTo(moved);
+        assertFalse(copy.exists());
+        assertEquals("Copy me", new String(moved.readFully(), UTF_8));
+        assertThrows(NotFoundException.class, () -> copy.copyTo(session.getResource("/copy/never.txt")));
+
+        try (StorageSession otherSession = startSession()) {
+            StorageResource otherCopy = otherSession.getResource("/copy/other.txt");
+            moved.copyTo(otherCopy);
+            assertEquals("Copy me", new String(otherCopy.readFully(), UTF_8));
+            otherCopy.delete();
+        }
+
+        session.getResource("/copy").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testCopyAndMoveToItself() throws IOException {
+        StorageResource resource = session.getResource("/copy-self/file.txt");
+        resource.write("Keep me".getBytes(UTF_8));
+
+        resource.copyTo(session.getResource("/copy-self/file.txt"));
+        assertEquals("Keep me", new String(resource.readFully(), UTF_8));
+
+        resource.moveTo(session.getResource("/copy-self/file.txt"));
+        assertEquals("Keep me", new String(resource.readFully(), UTF_8));
+
+        session.getResource("/copy-self").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testLocalFileTransfer() throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(24).nextBytes(data);
+        Path directory = Files.createTempDirectory("anystorage-file-transfer");
+        Path source = directory.resolve("source.bin");
+        Path target = directory.resolve("target.bin");
+        Files.write(source, data);
+        try {
+            StorageResource resource = session.getResource("/file-transfer/data.bin");
+            assertEquals(data.length, resource.write(source, WriteOption.ATOMIC));
+            assertThrows(AlreadyExistsException.class, () -> resource.write(source, WriteOption.CREATE_NEW));
+            assertEquals(data.length, resource.readTo(target));
+            assertArrayEquals(data, Files.readAllBytes(target));
+
+            ByteArrayOutputStream range = new ByteArrayOutputStream();
+            assertEquals(1000, resource.readTo(Channels.newChannel(range), ReadOption.ofRange(100, 1000)));
+            assertArrayEquals(Arrays.copyOfRange(data, 100, 1100), range.toByteArray());
+
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+                assertEquals(data.length - 10, resource.readTo(channel, ReadOption.ofOffset(10)));
+            }
+            assertEquals(data.length - 7, Files.size(target));
+
+            if (session.isSupported(WriteOption.APPEND)) {
+                resource.write(source, WriteOption.APPEND);
+                assertEquals(2L * data.length, resource.getSize());
+                assertArrayEquals(Arrays.copyOfRange(data, 0, 100), resource.readFully(ReadOption.ofRange(data.length, 100)));
+            }
+            resource.getParent().deleteDeep(true);
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testTransfer() throws IOException, InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            session.getResource("/transfer/source/dir" + (i % 4) + "/file" + i + ".txt").write(("content " + i).getBytes(UTF_8));
+        }
+
+        StorageTransfer transfer = StorageTransfer.builder().threads(4).queueCapacity(3).build();
+        try (StorageSession otherSession = startSession()) {
+            TransferProgress progress = transfer.run(session.getResource("/transfer/source"), otherSession.getResource("/transfer/target"));
+            assertTrue(progress.isDone());
+            assertTrue(progress.getFailures().isEmpty());
+            assertEquals(20, progress.getTransferredFiles());
+            assertEquals(0, progress.getRemainingBytes());
+            assertEquals(progress.getListedBytes(), progress.getTransferredBytes());
+            for (int i = 0; i < 20; i++) {
+                assertEquals("content " + i, new String(otherSession.getResource("/transfer/target/dir" + (i % 4) + "/file" + i + ".txt").readFully(), UTF_8));
+            }
+        }
+
+        TransferProgress progress = transfer.run(session.getResource("/transfer/source"), session.getResource("/transfer/copy"));
+        assertEquals(20, progress.getTransferredFiles());
+        assertEquals("content 7", new String(session.getResource("/transfer/copy/dir3/file7.txt").readFully(), UTF_8));
+
+        session.getResource("/transfer").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testTransferRetriesUncheckedFailures() throws IOException, InterruptedException {
+        session.getResource("/transfer-failure/source/ok1.txt").write("ok1".getBytes(UTF_8));
+        session.getResource("/transfer-failure/source/ok2.txt").write("ok2".getBytes(UTF_8));
+        session.getResource("/transfer-failure/source/broken.txt").write("broken".getBytes(UTF_8));
+
+        //e.g. a connection reset reported by a client library as an unchecked exception
+        AtomicInteger attempts = new AtomicInteger();
+        StorageSession failingSession = new DelegatingStorageSession(session) {
+            @Override
+            public StorageResource wrap(StorageResource resource) {
+                return new DelegatingStorageResource(this, resource) {
+                    @Override
+                    public InputStream openRead(ReadOption<?>... options) throws IOException {
+                        if ("broken.txt".equals(delegate.getName())) {
+                            attempts.incrementAndGet();
+                            throw new IllegalStateException("Connection reset");
+                        }
+                        return super.openRead(options);
+                    }
+                };
+            }
+        };
+
+        StorageTransfer transfer = StorageTransfer.builder().threads(2).maxRetries(2).retryDelay(Duration.ofMillis(1)).build();
+        TransferProgress progress = transfer.run(failingSession.getResource("/transfer-failure/source"), session.getResource("/transfer-failure/target"));
+        assertTrue(progress.isDone());
+        assertEquals(2, progress.getTransferredFiles());
+        assertEquals(1, progress.getFailedFiles());
+        assertEquals(2, progress.getRetries());
+        assertEquals(0, progress.getRemainingFiles());
+        assertEquals(0, progress.getRemainingBytes());
+        assertEquals(3, attempts.get());
+        assertEquals(1, progress.getFailures().size());
+        assertEquals("broken.txt", progress.getFailures().get(0).getPath());
+        assertEquals(3, progress.getFailures().get(0).getAttempts());
+        assertTrue(progress.getFailures().get(0).getException().getCause() instanceof IllegalStateException);
+        assertEquals("ok2", new String(session.getResource("/transfer-failure/target/ok2.txt").readFully(), UTF_8));
+        assertFalse(session.getResource("/transfer-failure/target/broken.txt").exists());
+
+        session.getResource("/transfer-failure").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testSync() throws IOException, InterruptedException {
+        StorageResource source = session.getResource("/sync/source");
+        StorageResource target = session.getResource("/sync/target");
+        source.resolve("a.txt").write("a".getBytes(UTF_8));
+        source.resolve("b/c.txt").write("c".getBytes(UTF_8));
+        source.resolve("b.txt").write("b".getBytes(UTF_8));
+        target.resolve("extra.txt").write("extra".getBytes(UTF_8));
+        StorageResource manifest = session.getResource("/sync/manifest.gz");
+
+        StorageSync sync = StorageSync.builder().deleteExtra(true).manifest(manifest).build();
+        SyncResult result = sync.sync(source, target);
+        assertTrue(result.isSuccessful());
+        assertEquals(3, result.getCopiedFiles());
+        assertEquals(1, result.getDeletedFiles());
+        assertFalse(target.resolve("extra.txt").exists());
+        assertEquals("c", new String(target.resolve("b/c.txt").readFully(), UTF_8));
+        assertTrue(manifest.exists());
+
+        source.resolve("b/c.txt").write("changed".getBytes(UTF_8));
+        source.resolve("a.txt").delete();
+        result = sync.sync(source, target);
+        assertTrue(result.isSuccessful());
+        assertEquals("changed", new String(target.resolve("b/c.txt").readFully(), UTF_8));
+        assertFalse(target.resolve("a.txt").exists());
+        if (source.resolve("b.txt").getTimeLastModified() != null) {
+            assertEquals(1, result.getCopiedFiles());
+            assertEquals(1, result.getUnchangedFiles());
+
+            result = StorageSync.builder().build().sync(source, target);
+            assertEquals(0, result.getCopiedFiles());
+            assertEquals(2, result.getUnchangedFiles());
+        }
+
+        session.getResource("/sync").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testChecksum() throws IOException, NoSuchAlgorithmException {
+        StorageResource resource = session.getResource("/checksum/data.bin");
+        byte[] content = "Checksum content".getBytes(UTF_8);
+        resource.write(content);
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(content);
+
+        //stored checksums may or may not be available, but are never wrong
+        resource.getChecksum("SHA-256").ifPresent(checksum -> assertArrayEquals(expected, checksum));
+        assertArrayEquals(expected, resource.getChecksum("SHA-256", ReadOption.COMPUTE_CHECKSUM).get());
+        resource.getChecksum("SHA-256").ifPresent(checksum -> assertArrayEquals(expected, checksum));
+
+        byte[] changedContent = "Changed checksum content".getBytes(UTF_8);
+        resource.write(changedContent);
+        byte[] changedExpected = MessageDigest.getInstance("SHA-256").digest(changedContent);
+        resource.getChecksum("SHA-256").ifPresent(checksum -> assertArrayEquals(changedExpected, checksum));
+        assertArrayEquals(changedExpected, resource.getChecksum("SHA-256", ReadOption.COMPUTE_CHECKSUM).get());
+
+        assertThrows(NotFoundException.class, () -> session.getResource("/checksum/missing.bin").getChecksum("SHA-256", ReadOption.COMPUTE_CHECKSUM));
+        session.getResource("/checksum").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testConditionalRead() throws IOException {
+        StorageResource resource = session.getResource("/conditional/config.json");
+        resource.write("{}".getBytes(UTF_8));
+        assertEquals("{}", new String(resource.readFully(ReadOption.ofIfNoneMatch("no-such-validator")), UTF_8));
+
+        String validator = resource.getValidator();
+        if (validator != null) {
+            assertThrows(NotModifiedException.class, () -> resource.readFully(ReadOption.ofIfNoneMatch(validator)));
+            assertThrows(NotModifiedException.class, () -> resource.openRead(ReadOption.ofIfNoneMatch(validator)).close());
+
+            resource.write("{\"changed\":true}".getBytes(UTF_8));
+            assertNotEquals(validator, resource.getValidator());
+            assertEquals("{\"changed\":true}", new String(resource.readFully(ReadOption.ofIfNoneMatch(validator)), UTF_8));
+        }
+        assertNull(session.getResource("/conditional/missing.json").getValidator());
+
+        session.getResource("/conditional").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testCachingSession() throws IOException {
+        CachingStorageSession cached = CachingStorageSession.builder(session).maxBytes(1024).build();
+        StorageResource resource = cached.getResource("/cached/a.txt");
+        resource.write("first".getBytes(UTF_8));
+        assertEquals("first", new String(resource.readFully(), UTF_8));
+        assertEquals("first", new String(resource.readFully(), UTF_8));
+        assertEquals(1, cached.getStats().getHitCount());
+        assertEquals("irs", new String(resource.readFully(ReadOption.ofRange(1, 3)), UTF_8));
+        assertEquals(2, cached.getStats().getHitCount());
+
+        resource.write("second".getBytes(UTF_8));
+        assertEquals("second", new String(resource.readFully(), UTF_8));
+        try (OutputStream outputStream = resource.openWrite()) {
+            outputStream.write("third".getBytes(UTF_8));
+        }
+        assertEquals("third", new String(cached.getResource("/cached/a.txt").readFully(), UTF_8));
+
+        cached.getResource("/cached/b.txt").write(new byte[600]);
+        cached.getResource("/cached/b.txt").readFully();
+        cached.getResource("/cached/c.txt").write(new byte[600]);
+        cached.getResource("/cached/c.txt").readFully();
+        assertTrue(cached.getStats().getEvictionCount() > 0);
+        assertTrue(cached.getStats().getSizeBytes() <= 1024);
+
+        resource.delete();
+        assertThrows(NotFoundException.class, resource::readFully);
+
+        Path directory = Files.createTempDirectory("anystorage-cache");
+        try {
+            CachingStorageSession diskCached = CachingStorageSession.builder(session).diskDirectory(directory).build();
+            StorageResource diskResource = diskCached.getResource("/cached/b.txt");
+            assertEquals(600, diskResource.readFully().length);
+            assertEquals(600, diskResource.readFully().length);
+            assertEquals(1, diskCached.getStats().getHitCount());
+            diskCached.getResource("/cached").deleteDeep(true);
+            assertEquals(0, diskCached.getStats().getEntryCount());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testCachingSessionMetadata() throws IOException {
+        CachingStorageSession cached = CachingStorageSession.builder(session).maxBytes(0).metadataTtl(Duration.ofMinutes(1)).build();
+        StorageResource directory = cached.getResource("/metacache");
+        StorageResource resource = cached.getResource("/metacache/a.txt");
+        assertFalse(directory.isDirectory());
+        assertFalse(resource.exists());
+        assertFalse(resource.exists());
+        session.getResource("/metacache/a.txt").write("abc".getBytes(UTF_8));
+        assertFalse(resource.exists()); //negative lookup served from the cache
+
+        resource.write("abcd".getBytes(UTF_8));
+        assertTrue(resource.exists());
+        assertTrue(resource.isFile());
+        assertEquals(4, resource.getSize());
+        assertEquals(4, resource.stat().getSize());
+        assertTrue(directory.isDirectory());
+
+        session.getResource("/metacache/a.txt").write("abcdef".getBytes(UTF_8));
+        assertEquals(4, resource.getSize());
+        try (OutputStream outputStream = resource.openWrite()) {
+            outputStream.write("ab".getBytes(UTF_8));
+        }
+        assertEquals(2, resource.getSize());
+        assertEquals("ab", new String(resource.readFully(), UTF_8));
+
+        resource.delete();
+        assertFalse(resource.exists());
+        assertFalse(resource.isFile());
+        assertTrue(cached.getStats().getMetadataHitCount() > 0);
+        assertEquals(0, cached.getStats().getHitCount());
+
+        session.getResource("/metacache").deleteDeep(true);
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testMetricsSession() throws IOException, JMException {
+        List<String> sinkEvents = Collections.synchronizedList(new ArrayList<>());
+        MetricsStorageSession metered = MetricsStorageSession.builder(session)
+                .backendType("test")
+                .sink((source, operation, durationNanos, failure) -> sinkEvents.add(operation + (failure != null ? "!" : "")))
+                .registerMBean()
+                .build();
+        try {
+            StorageResource resource = metered.getResource("/metrics/a.txt");
+            resource.write("hello".getBytes(UTF_8));
+            assertTrue(resource.exists());
+            assertEquals("hello", new String(resource.readFully(), UTF_8));
+            try (InputStream inputStream = resource.openRead()) {
+                assertEquals("hello", new String(IOStreams.readFully(inputStream), UTF_8));
+            }
+            try (OutputStream outputStream = resource.openWrite()) {
+                outputStream.write("hi".getBytes(UTF_8));
+            }
+            assertThrows(NotFoundException.class, () -> metered.getResource("/metrics/missing.txt").readFully());
+
+            StorageMetrics metrics = metered.getMetrics();
+            assertEquals(1, metrics.getOperation(MetricsStorageSession.Operation.WRITE).getCount());
+            assertEquals(1, metrics.getOperation(MetricsStorageSession.Operation.OPEN_WRITE).getCount());
+            assertEquals(2, metrics.getOperation(MetricsStorageSession.Operation.READ).getCount());
+            assertEquals(1, metrics.getOperation(MetricsStorageSession.Operation.READ).getErrorCount());
+            assertTrue(metrics.getOperation(MetricsStorageSession.Operation.READ).getErrors().containsKey(NotFoundException.class.getName()));
+            assertEquals(7, metrics.getBytesWritten());
+            assertEquals(10, metrics.getBytesRead());
+            assertEquals(0, metrics.getInFlight());
+            assertTrue(sinkEvents.contains(MetricsStorageSession.Operation.EXISTS));
+            assertTrue(sinkEvents.contains(MetricsStorageSession.Operation.READ + "!"));
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(7L, server.getAttribute(metered.getObjectName(), "BytesWritten"));
+            assertNotNull(server.getAttribute(metered.getObjectName(), "Operations"));
+        } finally {
+            metered.getResource("/metrics").deleteDeep(true);
+            //closing the metered session would close the tested one too
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metered.getObjectName());
+        }
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testConnectorDiscovery() throws IOException {
+        StorageConnectors connectors = new StorageConnectors();
+        StorageConnector expected = provideConnector();
+        StorageConnectorProvider provider = null;
+        for (StorageConnector connector : connectors) {
+            if (((StorageConnectorProvider) connector).getClassName().equals(expected.getClass().getName())) {
+                provider = (StorageConnectorProvider) connector;
+            }
+        }
+        assertNotNull(provider, "connector not registered as a service");
+
+        //labels and foreign connection strings are answered from the metadata
+        assertEquals(expected.getTypeLabel(), provider.getTypeLabel());
+        assertFalse(provider.canHandle("unknown://storage"));
+        assertFalse(provider.isInstantiated());
+
+        try (StorageSession provided = connectors.provide("discovery", getConnectionString()).get()) {
+            assertNotNull(provided.getRootResource());
+        }
+        assertTrue(provider.isInstantiated());
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testSessionPool() throws IOException {
+        StorageConnectors connectors = new StorageConnectors(Collections.singletonList(provideConnector()));
+        try (StorageSessionPool pool = connectors.pooled().idleTimeout(Duration.ofHours(1)).manualIdleCheck().build()) {
+            StorageSession first = pool.provide("pool", getConnectionString()).get();
+            StorageSession second = pool.provide("pool", getConnectionString()).get();
+            assertEquals(1, pool.getStats().getMissCount());
+            assertEquals(1, pool.getStats().getHitCount());
+            assertEquals(1, pool.getStats().getActiveSessions());
+
+            StorageResource pooledResource = first.getResource("/pool/file.txt");
+            pooledResource.write("pooled".getBytes(UTF_8));
+            assertEquals("pooled", new String(second.getResource("/pool/file.txt").readFully(), UTF_8));
+            assertSame(first, pooledResource.getSession());
+
+            //releases only the first handle
+            pooledResource.getSession().close();
+            first.close();
+            assertEquals("pooled", new String(second.getResource("/pool/file.txt").readFully(), UTF_8));
+            assertEquals(1, pool.getStats().getActiveSessions());
+            second.close();
+            assertEquals(0, pool.getStats().getActiveSessions());
+            assertEquals(1, pool.getStats().getIdleSessions());
+            assertEquals(0, pool.closeIdleSessions());
+
+            try (StorageSession reused = pool.provide("pool", getConnectionString()).get();
+                 StorageSession other = pool.provide("pool", getConnectionString(), Options.DEFAULTS.with("pool.test", "other")).get()) {
+                assertEquals(2, pool.getStats().getHitCount());
+                assertEquals(2, pool.getStats().getMissCount());
+                assertEquals(2, pool.getStats().getOpenSessions());
+                reused.getResource("/pool").deleteDeep(true);
+                assertFalse(other.getResource("/pool/file.txt").exists());
+            }
+            assertEquals(0, pool.getStats().getClosedCount());
+        }
+
+        try (StorageSessionPool pool = connectors.pooled().idleTimeout(Duration.ZERO).build()) {
+            pool.provide("pool", getConnectionString()).get().close();
+            assertEquals(1, pool.getStats().getClosedCount());
+            assertEquals(0, pool.getStats().getOpenSessions());
+        }
+    }
+
+    @Test
+    @DisabledIf("isTestSkipped")
+    void testWalk() throws IOException {
+        session.getResource("/walk/a.txt").write("a".getBytes(UTF_8));
+        session.getResource("/walk/sub/b.txt").write("bb".getBytes(UTF_8));
+        session.getResource("/walk/sub/deep/c.txt").write("ccc".getBytes(UTF_8));
+        session.getResource("/walk/sub2/d.txt").write("dddd".getBytes(UTF_8));
+        StorageResource root = session.getResource("/walk");
+
+        List<String> all;
+        try (Stream<StorageResourceEntry> entries = root.walk()) {
+            all = entries.map(StorageResourceEntry::getName).collect(Collectors.toList());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("a.txt", "sub", "sub/b.txt", "sub/deep", "sub/deep/c.txt", "sub2", "sub2/d.txt")), new HashSet<>(all));
+        assertEquals(7, all.size());
+        assertTrue(all.indexOf("sub") < all.indexOf("sub/b.txt"));
+        assertTrue(all.indexOf("sub/deep") < all.indexOf("sub/deep/c.txt"));
+
+        try (Stream<StorageResourceEntry> entries = root.walk(1, entry -> true)) {
+            assertEquals(new HashSet<>(Arrays.asList("a.txt", "sub", "sub2")), entries.map(StorageResourceEntry::getName).collect(Collectors.toSet()));
+        }
+
+        Map<String, Long> files = new HashMap<>();
+        try (Stream<StorageResourceEntry> entries = root.walk(Integer.MAX_VALUE, entry -> entry.getAttributes().isFile())) {
+            entries.forEach(entry -> files.put(entry.getName(), entry.getAttributes().getSize()));
+        }
+        assertEquals(4, files.size());
+        assertEquals(3, (long) files.get("sub/deep/c.txt"));
+        assertArrayEquals("ccc".getBytes(UTF_8), root.resolve("sub/deep/c.txt").readFully());
+
+        root.deleteDeep(true);
+    }
+
     @Test
     @DisabledIf("isTestSkipped")
     void testWriteOnceReadManyPreventOverwriteInMultipleThreads() throws IOException, InterruptedException {